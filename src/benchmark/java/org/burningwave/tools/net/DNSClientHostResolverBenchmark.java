@@ -0,0 +1,81 @@
+package org.burningwave.tools.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DNSClientHostResolverBenchmark {
+	String hostName = "service.benchmark.burningwave.org";
+	DNSClientHostResolver resolver;
+	byte[] response;
+
+	@Setup
+	public void setup() throws IOException {
+		resolver = new DNSClientHostResolver("127.0.0.1");
+		response = buildResponse(hostName, 4);
+	}
+
+	@Benchmark
+	public byte[] encodeRequest() throws IOException {
+		return resolver.encodeRequest((short)1234, hostName, 1);
+	}
+
+	@Benchmark
+	public Map<byte[], String> parseResponse() throws IOException {
+		return resolver.parseResponse(response);
+	}
+
+	static byte[] buildResponse(String hostName, int answerCount) throws IOException {
+		try (ByteArrayOutputStream responseContentStream = new ByteArrayOutputStream();
+			DataOutputStream responseWrapper = new DataOutputStream(responseContentStream)
+		) {
+			responseWrapper.writeShort(1234);
+			responseWrapper.writeShort(0x8180);
+			responseWrapper.writeShort(1);
+			responseWrapper.writeShort(answerCount);
+			responseWrapper.writeShort(0);
+			responseWrapper.writeShort(0);
+			for (String label : hostName.split("\\.")) {
+				byte[] labelBytes = label.getBytes(StandardCharsets.UTF_8);
+				responseWrapper.writeByte(labelBytes.length);
+				responseWrapper.write(labelBytes);
+			}
+			responseWrapper.writeByte(0);
+			responseWrapper.writeShort(1);
+			responseWrapper.writeShort(1);
+			for (int i = 0; i < answerCount; i++) {
+				responseWrapper.writeShort(0xC00C);
+				responseWrapper.writeShort(1);
+				responseWrapper.writeShort(1);
+				responseWrapper.writeInt(300);
+				responseWrapper.writeShort(4);
+				responseWrapper.write(new byte[] {10, 0, 0, (byte)(i + 1)});
+			}
+			byte[] response = new byte[1024];
+			byte[] content = responseContentStream.toByteArray();
+			System.arraycopy(content, 0, response, 0, content.length);
+			return response;
+		}
+	}
+
+}
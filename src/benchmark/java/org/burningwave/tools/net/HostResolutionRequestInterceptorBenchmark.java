@@ -0,0 +1,57 @@
+package org.burningwave.tools.net;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+//The JDK cache is disabled so that every lookup reaches the name service (or the proxy that replaces it)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Dsun.net.inetaddr.ttl=0", "-Dsun.net.inetaddr.negative.ttl=0"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class HostResolutionRequestInterceptorBenchmark {
+
+	@Param({"false", "true"})
+	boolean interceptorInstalled;
+
+	@Setup
+	public void setup() {
+		if (interceptorInstalled) {
+			HostResolutionRequestInterceptor.INSTANCE.install(
+				new MappedHostResolver(Collections.singletonMap("mapped.benchmark", "10.0.0.1")),
+				DefaultHostResolver.INSTANCE
+			);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (interceptorInstalled) {
+			HostResolutionRequestInterceptor.INSTANCE.uninstall();
+		}
+	}
+
+	@Benchmark
+	public InetAddress getByName() throws UnknownHostException {
+		return InetAddress.getByName("localhost");
+	}
+
+}
@@ -0,0 +1,47 @@
+package org.burningwave.tools.net;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IPAddressUtilBenchmark {
+	String iPV4Address = "192.168.100.200";
+	String iPV6Address = "2001:db8:85a3::8a2e:370:7334";
+	byte[] iPV4AddressAsBytes = IPAddressUtil.INSTANCE.textToNumericFormat(iPV4Address);
+	byte[] iPV6AddressAsBytes = IPAddressUtil.INSTANCE.textToNumericFormat(iPV6Address);
+
+	@Benchmark
+	public byte[] textToNumericFormatV4() {
+		return IPAddressUtil.INSTANCE.textToNumericFormat(iPV4Address);
+	}
+
+	@Benchmark
+	public byte[] textToNumericFormatV6() {
+		return IPAddressUtil.INSTANCE.textToNumericFormat(iPV6Address);
+	}
+
+	@Benchmark
+	public String numericToTextFormatV4() {
+		return IPAddressUtil.INSTANCE.numericToTextFormat(iPV4AddressAsBytes);
+	}
+
+	@Benchmark
+	public String numericToTextFormatV6() {
+		return IPAddressUtil.INSTANCE.numericToTextFormat(iPV6AddressAsBytes);
+	}
+
+}
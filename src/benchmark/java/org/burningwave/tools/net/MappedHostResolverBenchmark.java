@@ -0,0 +1,58 @@
+package org.burningwave.tools.net;
+
+import java.net.InetAddress;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MappedHostResolverBenchmark {
+
+	@Param({"10", "10000"})
+	int mappingCount;
+
+	MappedHostResolver resolver;
+	String hostName;
+	byte[] address;
+
+	@Setup
+	public void setup() {
+		Map<String, String> hostAliases = new LinkedHashMap<>();
+		for (int i = 0; i < mappingCount; i++) {
+			hostAliases.put("host-" + i + ".benchmark", "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF));
+		}
+		resolver = new MappedHostResolver(hostAliases);
+		int middle = mappingCount / 2;
+		hostName = "host-" + middle + ".benchmark";
+		address = IPAddressUtil.INSTANCE.textToNumericFormat(hostAliases.get(hostName));
+	}
+
+	@Benchmark
+	public Collection<InetAddress> getAllAddressesForHostName() {
+		return resolver.getAllAddressesForHostName(new HostResolutionRequest(new Object[] {hostName}));
+	}
+
+	@Benchmark
+	public Collection<String> getAllHostNamesForHostAddress() {
+		return resolver.getAllHostNamesForHostAddress(new HostResolutionRequest(new Object[] {address}));
+	}
+
+}
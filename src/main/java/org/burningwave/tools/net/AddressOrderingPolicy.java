@@ -0,0 +1,115 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+//Orders the addresses of a host name so that the callers try first the best one: the sorting of the
+//predefined policies is stable so the addresses considered equivalent keep the order of the resolvers
+@FunctionalInterface
+public interface AddressOrderingPolicy {
+
+	public static final AddressOrderingPolicy PREFER_IPV4 = sortingBy(
+		Comparator.comparingInt(address -> address instanceof Inet4Address ? 0 : 1)
+	);
+
+	public static final AddressOrderingPolicy PREFER_IPV6 = sortingBy(
+		Comparator.comparingInt(address -> address instanceof Inet6Address ? 0 : 1)
+	);
+
+	//The destination address selection of RFC 6724 without the rules that need the source addresses:
+	//higher precedence in the default policy table first (rule 6) and then smaller scope first (rule 8)
+	public static final AddressOrderingPolicy RFC_6724 = sortingBy(
+		Comparator.comparingInt(AddressOrderingPolicy::getRFC6724Precedence).reversed()
+			.thenComparingInt(AddressOrderingPolicy::getRFC6724Scope)
+	);
+
+	public List<InetAddress> order(String hostName, List<InetAddress> addresses);
+
+	public static AddressOrderingPolicy sortingBy(Comparator<InetAddress> comparator) {
+		return (hostName, addresses) -> {
+			List<InetAddress> orderedAddresses = new ArrayList<>(addresses);
+			orderedAddresses.sort(comparator);
+			return orderedAddresses;
+		};
+	}
+
+	static int getRFC6724Precedence(InetAddress address) {
+		if (address instanceof Inet4Address) {
+			//::ffff:0:0/96
+			return 35;
+		}
+		byte[] rawAddress = address.getAddress();
+		if (address.isLoopbackAddress()) {
+			return 50;
+		}
+		if (rawAddress[0] == 0x20 && rawAddress[1] == 0x02) {
+			//6to4
+			return 30;
+		}
+		if (rawAddress[0] == 0x20 && rawAddress[1] == 0x01 && rawAddress[2] == 0 && rawAddress[3] == 0) {
+			//Teredo
+			return 5;
+		}
+		if ((rawAddress[0] & 0xFE) == 0xFC) {
+			//Unique local
+			return 3;
+		}
+		if (address.isSiteLocalAddress() || (rawAddress[0] == 0x3F && rawAddress[1] == (byte)0xFE) || isIPv4Compatible(rawAddress)) {
+			//Deprecated site local, 6bone and IPv4 compatible
+			return 1;
+		}
+		return 40;
+	}
+
+	static int getRFC6724Scope(InetAddress address) {
+		if (address.isLoopbackAddress() || address.isLinkLocalAddress()) {
+			return 2;
+		}
+		if (address.isSiteLocalAddress()) {
+			return address instanceof Inet4Address ? 14 : 5;
+		}
+		return 14;
+	}
+
+	static boolean isIPv4Compatible(byte[] rawAddress) {
+		for (int i = 0; i < 12; i++) {
+			if (rawAddress[i] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
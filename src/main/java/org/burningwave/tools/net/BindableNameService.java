@@ -0,0 +1,46 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import org.burningwave.core.function.ThrowingFunction;
+
+//Implemented by the name services that the JDK calls directly and that, instead of being replaced by a proxy,
+//are bound to the handlers of the interceptor: while unbound they delegate to the builtin name service
+interface BindableNameService {
+
+	public Object getBuiltinNameService();
+
+	public void bind(
+		ThrowingFunction<Object[], Object, Throwable> getAllAddressesForHostNameHandler,
+		ThrowingFunction<Object[], Object, Throwable> getAllHostNamesForHostAddressHandler
+	);
+
+	public void unbind();
+
+}
@@ -41,17 +41,27 @@ import java.io.InputStream;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import org.burningwave.core.function.ThrowingBiFunction;
@@ -60,23 +70,45 @@ import org.burningwave.core.function.ThrowingBiFunction;
 @SuppressWarnings("unchecked")
 public class DNSClientHostResolver implements HostResolver {
 	public final static int DEFAULT_PORT;
+	public final static int DEFAULT_TIMEOUT;
+	public final static int DEFAULT_PIPELINE_WINDOW;
 
 	private static final String IPV6_DOMAIN;
 	private static final String IPV4_DOMAIN;
 	private static final short RECORD_TYPE_A;
 	private static final short RECORD_TYPE_PTR;
 	private static final short RECORD_TYPE_AAAA;
+	private static final short RECORD_TYPE_SRV;
+	private static final int RESPONSE_CODE_NO_ERROR;
+	private static final int RESPONSE_CODE_NAME_ERROR;
+	private static final int PIPELINED_QUERY_ATTEMPTS;
+	private static final char[][] DECIMAL_OCTETS;
+	private static final char[] HEX_DIGITS;
+	private static final ThreadLocal<char[]> reversedNameBuffer;
 
 	public static final ThrowingBiFunction<DNSClientHostResolver, String, byte[], IOException> IPV4_RETRIEVER;
 	public static final ThrowingBiFunction<DNSClientHostResolver, String, byte[], IOException> IPV6_RETRIEVER;
 
 	static {
 		DEFAULT_PORT = 53;
+		DEFAULT_TIMEOUT = 5000;
+		DEFAULT_PIPELINE_WINDOW = 256;
 		IPV6_DOMAIN = "ip6.arpa.";
 		IPV4_DOMAIN = "in-addr.arpa.";
 		RECORD_TYPE_A = 1;
 		RECORD_TYPE_PTR = 12;
 		RECORD_TYPE_AAAA = 28;
+		RECORD_TYPE_SRV = 33;
+		RESPONSE_CODE_NO_ERROR = 0;
+		RESPONSE_CODE_NAME_ERROR = 3;
+		PIPELINED_QUERY_ATTEMPTS = 2;
+		DECIMAL_OCTETS = new char[256][];
+		for (int i = 0; i < DECIMAL_OCTETS.length; i++) {
+			DECIMAL_OCTETS[i] = Integer.toString(i).toCharArray();
+		}
+		HEX_DIGITS = "0123456789abcdef".toCharArray();
+		//The longest name is the one of the IPv6 addresses: 32 nibbles followed by a dot and the domain
+		reversedNameBuffer = ThreadLocal.withInitial(() -> new char[64 + IPV6_DOMAIN.length()]);
 		IPV4_RETRIEVER = (dNSServerHostResolver, hostName) ->
 			dNSServerHostResolver.sendRequest(hostName, RECORD_TYPE_A);
 		IPV6_RETRIEVER = (dNSServerHostResolver, hostName) ->
@@ -93,6 +125,12 @@ public class DNSClientHostResolver implements HostResolver {
 
 	private InetAddress dNSServerIP;
 	private int dNSServerPort;
+	private int timeout;
+	private ExecutorService executor;
+	private QueryConcurrencyLimiter concurrencyLimiter;
+	private int pipelineWindow;
+	private volatile ExpiringCache<ByteBuffer, Collection<String>> reverseCache;
+	private volatile ExpiringCache<String, List<ServiceRecord>> serviceCache;
 
 	public DNSClientHostResolver(String dNSServerIP) {
 		this(dNSServerIP, DEFAULT_PORT, IPV4_RETRIEVER, IPV6_RETRIEVER);
@@ -102,10 +140,12 @@ public class DNSClientHostResolver implements HostResolver {
 		this(dNSServerIP, dNSServerPort, IPV4_RETRIEVER, IPV6_RETRIEVER);
 	}
 
+	@SafeVarargs
 	public DNSClientHostResolver(String dNSServerIP, ThrowingBiFunction<DNSClientHostResolver, String, byte[], IOException>... resolveHostForNameRequestSenders) {
 		this(dNSServerIP, DEFAULT_PORT, resolveHostForNameRequestSenders);
 	}
 
+	@SafeVarargs
 	public DNSClientHostResolver(String dNSServerIP, int dNSServerPort, ThrowingBiFunction<DNSClientHostResolver, String, byte[], IOException>... resolveHostForNameRequestSenders) {
 		try {
 			this.dNSServerIP = InetAddress.getByName(dNSServerIP);
@@ -113,6 +153,8 @@ public class DNSClientHostResolver implements HostResolver {
 			Driver.throwException(exc);
 		}
 		this.dNSServerPort = dNSServerPort;
+		this.timeout = DEFAULT_TIMEOUT;
+		this.pipelineWindow = DEFAULT_PIPELINE_WINDOW;
 		this.resolveHostForNameRequestSenders = resolveHostForNameRequestSenders != null && resolveHostForNameRequestSenders.length > 0 ?
 			resolveHostForNameRequestSenders :
 			new ThrowingBiFunction[] {IPV4_RETRIEVER, IPV6_RETRIEVER};
@@ -128,27 +170,136 @@ public class DNSClientHostResolver implements HostResolver {
 					((List<String>)serverMap.get("ipTypeToSearchFor")).stream()
 					.map(ipType -> Fields.getStaticDirect(DNSClientHostResolver.class, Strings.compile("{}_RETRIEVER", ipType.toUpperCase())))
 					.map(ThrowingBiFunction.class::cast).toArray(size -> new ThrowingBiFunction[size])
+	            ).setTimeout((Integer)serverMap.getOrDefault("timeout", DEFAULT_TIMEOUT))
+	            .setConcurrencyLimiter(serverMap.containsKey("maxConcurrentQueries") ?
+	            	new QueryConcurrencyLimiter(
+	            		(Integer)serverMap.getOrDefault("minConcurrentQueries", serverMap.get("maxConcurrentQueries")),
+	            		(Integer)serverMap.get("maxConcurrentQueries"),
+	            		(Integer)serverMap.getOrDefault("maxQueuedQueries", 0)
+	            	) : null
 	            )
 	        )
 	    );
 		return dNSClientHostResolvers;
 	}
 
+	//The timeout, in milliseconds, after which a query without response is considered unresolved
+	public DNSClientHostResolver setTimeout(int timeout) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Timeout cannot be negative");
+		}
+		this.timeout = timeout;
+		return this;
+	}
+
+	public InetAddress getServerIP() {
+		return dNSServerIP;
+	}
+
+	public int getServerPort() {
+		return dNSServerPort;
+	}
+
+	public int getTimeout() {
+		return timeout;
+	}
+
+	//When an executor is set the queries for the different record types are sent in parallel:
+	//HostResolutionExecutors supplies the executors that run them on virtual threads
+	public DNSClientHostResolver setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	//Limits the queries sent at the same time to the server: the same limiter can be shared by
+	//the resolvers that query the same server. The queries wait in queue at most the timeout
+	public DNSClientHostResolver setConcurrencyLimiter(QueryConcurrencyLimiter concurrencyLimiter) {
+		this.concurrencyLimiter = concurrencyLimiter;
+		return this;
+	}
+
+	public QueryConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+
+	//Caches the answers of the PTR queries, keyed by numeric address, for the time to live of their records: the
+	//negative answers are cached for the negative time to live (0 disables their caching)
+	public DNSClientHostResolver enableReverseCache(int maximumSize, long negativeTimeToLive) {
+		if (maximumSize < 1 || negativeTimeToLive < 0) {
+			throw new IllegalArgumentException(Strings.compile("Invalid reverse cache settings: {}, {}", maximumSize, negativeTimeToLive));
+		}
+		reverseCache = new ExpiringCache<>(maximumSize, negativeTimeToLive);
+		return this;
+	}
+
+	public DNSClientHostResolver disableReverseCache() {
+		reverseCache = null;
+		return this;
+	}
+
+	public int getReverseCacheSize() {
+		ExpiringCache<ByteBuffer, Collection<String>> reverseCache = this.reverseCache;
+		return reverseCache != null ? reverseCache.entries.size() : 0;
+	}
+
+	//Caches the SRV records, keyed by service name, for the lowest time to live of the answer: the
+	//negative answers are cached for the negative time to live (0 disables their caching)
+	public DNSClientHostResolver enableServiceCache(int maximumSize, long negativeTimeToLive) {
+		if (maximumSize < 1 || negativeTimeToLive < 0) {
+			throw new IllegalArgumentException(Strings.compile("Invalid service cache settings: {}, {}", maximumSize, negativeTimeToLive));
+		}
+		serviceCache = new ExpiringCache<>(maximumSize, negativeTimeToLive);
+		return this;
+	}
+
+	public DNSClientHostResolver disableServiceCache() {
+		serviceCache = null;
+		return this;
+	}
+
+	public int getServiceCacheSize() {
+		ExpiringCache<String, List<ServiceRecord>> serviceCache = this.serviceCache;
+		return serviceCache != null ? serviceCache.entries.size() : 0;
+	}
+
+	//The maximum number of queries of a batch waiting for a response at the same time
+	public DNSClientHostResolver setPipelineWindow(int pipelineWindow) {
+		if (pipelineWindow < 1 || pipelineWindow > 65535) {
+			throw new IllegalArgumentException(Strings.compile("Invalid pipeline window: {}", pipelineWindow));
+		}
+		this.pipelineWindow = pipelineWindow;
+		return this;
+	}
+
+	public int getPipelineWindow() {
+		return pipelineWindow;
+	}
+
 	@Override
 	public Collection<InetAddress> getAllAddressesForHostName(Map<String, Object> argumentMap) {
-		return resolveHostForName((String)getMethodArguments(argumentMap)[0]);
+		return resolveHostForName((String)getMethodArguments(argumentMap)[0], argumentMap);
 	}
 
 	public Collection<InetAddress> resolveHostForName(String hostName) {
+		return resolveHostForName(hostName, null);
+	}
+
+	private Collection<InetAddress> resolveHostForName(String hostName, Map<String, Object> argumentMap) {
 		try {
 			Collection<InetAddress> addresses = new ArrayList<>();
-			byte[][] responses = new byte[resolveHostForNameRequestSenders.length][];
-			for (int i = 0; i < resolveHostForNameRequestSenders.length; i++) {
-				responses[i] = resolveHostForNameRequestSenders[i].apply(this, hostName);
-			}
+			byte[][] responses = sendRequests(hostName);
 	        Map<byte[], String> iPToDomainMap = new LinkedHashMap<>();
+	        long[] timeToLive = {-1};
 	        for (byte[] response : responses) {
-	        	iPToDomainMap.putAll(parseResponse(response));
+	        	checkResponseCode(hostName, response);
+	        	iPToDomainMap.putAll(parseResponse(response, timeToLive));
+	        }
+	        if (argumentMap != null && timeToLive[0] >= 0) {
+	        	setTimeToLive(argumentMap, timeToLive[0] * 1000);
 	        }
 	        for (Entry<byte[], String> iPToDomain : iPToDomainMap.entrySet()) {
 	        	addresses.add(InetAddress.getByAddress(iPToDomain.getValue(), iPToDomain.getKey()));
@@ -159,8 +310,360 @@ public class DNSClientHostResolver implements HostResolver {
 		}
 	}
 
+	public Map<String, Collection<InetAddress>> resolveAll(Collection<String> hostNames) {
+		return resolveAll(hostNames, timeout);
+	}
+
+	//Sends all the queries on one socket and returns, when all the responses are received or the timeout of the whole
+	//batch elapses, the addresses of every host name whose queries have been answered (empty if not existent): the
+	//host names whose queries have failed, for example with SERVFAIL or REFUSED, are not in the returned map
+	public Map<String, Collection<InetAddress>> resolveAll(Collection<String> hostNames, long timeout) {
+		List<String> distinctHostNames = new ArrayList<>(new LinkedHashSet<>(hostNames));
+		Map<String, Collection<InetAddress>> addressesForHostName = new LinkedHashMap<>();
+		int[] recordTypes = getRecordTypes();
+		if (recordTypes == null) {
+			//The custom request senders can only be called one at a time
+			long deadline = getDeadline(timeout);
+			for (String hostName : distinctHostNames) {
+				if (System.currentTimeMillis() >= deadline) {
+					break;
+				}
+				try {
+					addressesForHostName.put(hostName, resolveHostForName(hostName));
+				} catch (Throwable exc) {
+
+				}
+			}
+			return addressesForHostName;
+		}
+		String[] queryNames = new String[distinctHostNames.size() * recordTypes.length];
+		int[] queryRecordTypes = new int[queryNames.length];
+		for (int i = 0; i < queryNames.length; i++) {
+			queryNames[i] = distinctHostNames.get(i / recordTypes.length);
+			queryRecordTypes[i] = recordTypes[i % recordTypes.length];
+		}
+		try {
+			byte[][] responses = sendPipelinedRequests(queryNames, queryRecordTypes, timeout);
+			for (int i = 0; i < distinctHostNames.size(); i++) {
+				Map<byte[], String> iPToDomainMap = new LinkedHashMap<>();
+				boolean answered = true;
+				for (int j = 0; j < recordTypes.length && answered; j++) {
+					byte[] response = responses[i * recordTypes.length + j];
+					if (answered = response != null && !isFailed(response)) {
+						iPToDomainMap.putAll(parseResponse(response));
+					}
+				}
+				if (answered) {
+					Collection<InetAddress> addresses = new ArrayList<>();
+					for (Entry<byte[], String> iPToDomain : iPToDomainMap.entrySet()) {
+						addresses.add(InetAddress.getByAddress(iPToDomain.getValue(), iPToDomain.getKey()));
+					}
+					addressesForHostName.put(distinctHostNames.get(i), addresses);
+				}
+			}
+		} catch (IOException exc) {
+			Driver.throwException(exc);
+		}
+		return addressesForHostName;
+	}
+
+	public Map<byte[], Collection<String>> reverseResolveAll(Collection<byte[]> iPAddressesAsBytes) {
+		return reverseResolveAll(iPAddressesAsBytes, timeout);
+	}
+
+	//As resolveAll but for the PTR queries: the keys of the returned map are the passed arrays
+	public Map<byte[], Collection<String>> reverseResolveAll(Collection<byte[]> iPAddressesAsBytes, long timeout) {
+		List<byte[]> addresses = new ArrayList<>(iPAddressesAsBytes);
+		String[] queryNames = new String[addresses.size()];
+		int[] queryRecordTypes = new int[queryNames.length];
+		for (int i = 0; i < queryNames.length; i++) {
+			queryNames[i] = iPAddressAsBytesToReversedString(addresses.get(i));
+			queryRecordTypes[i] = RECORD_TYPE_PTR;
+		}
+		Map<byte[], Collection<String>> hostNamesForAddress = new LinkedHashMap<>();
+		try {
+			byte[][] responses = sendPipelinedRequests(queryNames, queryRecordTypes, timeout);
+			for (int i = 0; i < responses.length; i++) {
+				if (responses[i] != null && !isFailed(responses[i])) {
+					Collection<String> hostNames = new ArrayList<>();
+					for (byte[] hostNameAsBytes : parseResponse(responses[i]).keySet()) {
+						hostNames.add(hostNameAsBytesToString(hostNameAsBytes));
+					}
+					hostNamesForAddress.put(addresses.get(i), hostNames);
+				}
+			}
+		} catch (IOException exc) {
+			Driver.throwException(exc);
+		}
+		return hostNamesForAddress;
+	}
+
+	private int[] getRecordTypes() {
+		int[] recordTypes = new int[resolveHostForNameRequestSenders.length];
+		for (int i = 0; i < recordTypes.length; i++) {
+			if (resolveHostForNameRequestSenders[i] == IPV4_RETRIEVER) {
+				recordTypes[i] = RECORD_TYPE_A;
+			} else if (resolveHostForNameRequestSenders[i] == IPV6_RETRIEVER) {
+				recordTypes[i] = RECORD_TYPE_AAAA;
+			} else {
+				return null;
+			}
+		}
+		return recordTypes;
+	}
+
+	//The message IDs are consecutive so that, since the window is lower than the ID space, the ones of the queries
+	//waiting for a response are always distinct. A batch takes one slot of the concurrency limiter and its
+	//window is reduced to the limit of the limiter. A query not answered within the timeout of the resolver is
+	//sent again and, after the last attempt, abandoned so that its slot in the window is freed
+	private byte[][] sendPipelinedRequests(String[] names, int[] recordTypes, long timeout) throws IOException {
+		byte[][] responses = new byte[names.length][];
+		if (names.length == 0) {
+			return responses;
+		}
+		long deadline = getDeadline(timeout);
+		QueryConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+		int window = pipelineWindow;
+		if (concurrencyLimiter != null) {
+			concurrencyLimiter.acquire(timeout);
+			window = Math.min(window, concurrencyLimiter.getLimit());
+		}
+		boolean succeeded = false;
+		try (DatagramSocket socket = new DatagramSocket()) {
+			socket.connect(dNSServerIP, dNSServerPort);
+			int queryTimeout = this.timeout;
+			int firstID = requestIdGenerator.nextInt(65536);
+			int[] indexForID = new int[65536];
+			Arrays.fill(indexForID, -1);
+			byte[] buffer = new byte[4096];
+			DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+			long[] sendingTimes = new long[names.length];
+			int[] attempts = new int[names.length];
+			//The queries waiting for a response in order of sending: since they have all the same timeout, the
+			//first one is the first to expire. Every query is in the queue at most once
+			int[] waitingIndexes = new int[names.length];
+			int waitingHead = 0;
+			int waitingCount = 0;
+			int sent = 0;
+			int pending = 0;
+			int completed = 0;
+			int received = 0;
+			int[] truncatedIndexes = new int[names.length];
+			int truncatedCount = 0;
+			while (completed < names.length) {
+				for (; pending < window && sent < names.length; ++sent, ++pending) {
+					int ID = (firstID + sent) & 0xFFFF;
+					indexForID[ID] = sent;
+					sendingTimes[sent] = System.currentTimeMillis();
+					attempts[sent] = 1;
+					waitingIndexes[(waitingHead + waitingCount++) % names.length] = sent;
+					byte[] dnsFrame = encodeRequest((short)ID, names[sent], recordTypes[sent]);
+					socket.send(new DatagramPacket(dnsFrame, dnsFrame.length));
+				}
+				long currentTime = System.currentTimeMillis();
+				long remainingTime = deadline - currentTime;
+				if (remainingTime <= 0) {
+					break;
+				}
+				long waitingTime = remainingTime;
+				boolean abandoned = false;
+				while (waitingCount > 0) {
+					int index = waitingIndexes[waitingHead];
+					int ID = (firstID + index) & 0xFFFF;
+					if (indexForID[ID] != index) {
+						//Already answered
+						waitingHead = (waitingHead + 1) % names.length;
+						--waitingCount;
+						continue;
+					}
+					long elapsedTime = currentTime - sendingTimes[index];
+					if (queryTimeout <= 0 || elapsedTime < queryTimeout) {
+						if (queryTimeout > 0) {
+							waitingTime = Math.min(waitingTime, queryTimeout - elapsedTime);
+						}
+						break;
+					}
+					waitingHead = (waitingHead + 1) % names.length;
+					--waitingCount;
+					if (attempts[index]++ < PIPELINED_QUERY_ATTEMPTS) {
+						sendingTimes[index] = currentTime;
+						waitingIndexes[(waitingHead + waitingCount++) % names.length] = index;
+						byte[] dnsFrame = encodeRequest((short)ID, names[index], recordTypes[index]);
+						socket.send(new DatagramPacket(dnsFrame, dnsFrame.length));
+					} else {
+						indexForID[ID] = -1;
+						--pending;
+						++completed;
+						abandoned = true;
+					}
+				}
+				if (abandoned) {
+					//The freed slots are filled before waiting
+					continue;
+				}
+				socket.setSoTimeout((int)Math.max(1, Math.min(waitingTime, Integer.MAX_VALUE)));
+				packet.setLength(buffer.length);
+				try {
+					socket.receive(packet);
+				} catch (SocketTimeoutException exc) {
+					continue;
+				}
+				if (packet.getLength() < 12) {
+					continue;
+				}
+				int ID = ((buffer[0] & 0xFF) << 8) | (buffer[1] & 0xFF);
+				int index = indexForID[ID];
+				if (index < 0) {
+					continue;
+				}
+				indexForID[ID] = -1;
+				byte[] response = Arrays.copyOf(buffer, packet.getLength());
+				if (isTruncated(response)) {
+					truncatedIndexes[truncatedCount++] = index;
+				} else {
+					responses[index] = response;
+					++received;
+				}
+				--pending;
+				++completed;
+			}
+			//The truncated responses are requested again over TCP, within the remaining time, only after the
+			//UDP exchange so that the other responses are not left waiting in the socket buffer meanwhile
+			for (int i = 0; i < truncatedCount; i++) {
+				long remainingTime = deadline - System.currentTimeMillis();
+				if (remainingTime <= 0) {
+					break;
+				}
+				int index = truncatedIndexes[i];
+				try {
+					responses[index] = sendRequestOverTCP(
+						names[index],
+						encodeRequest((short)(firstID + index), names[index], recordTypes[index]),
+						(int)Math.min(remainingTime, Integer.MAX_VALUE)
+					);
+					++received;
+				} catch (UnknownHostException exc) {
+
+				}
+			}
+			succeeded = received == names.length;
+		} finally {
+			if (concurrencyLimiter != null) {
+				concurrencyLimiter.release(succeeded);
+			}
+		}
+		return responses;
+	}
+
+	//As for the sockets a timeout of 0 means no limit
+	private long getDeadline(long timeout) {
+		return timeout == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeout;
+	}
+
+	private byte[][] sendRequests(String hostName) throws Throwable {
+		byte[][] responses = new byte[resolveHostForNameRequestSenders.length][];
+		ExecutorService executor = this.executor;
+		if (executor == null || responses.length < 2) {
+			for (int i = 0; i < resolveHostForNameRequestSenders.length; i++) {
+				responses[i] = resolveHostForNameRequestSenders[i].apply(this, hostName);
+			}
+			return responses;
+		}
+		List<Future<byte[]>> futures = new ArrayList<>(responses.length);
+		for (ThrowingBiFunction<DNSClientHostResolver, String, byte[], IOException> requestSender : resolveHostForNameRequestSenders) {
+			futures.add(executor.submit(() -> requestSender.apply(this, hostName)));
+		}
+		try {
+			for (int i = 0; i < responses.length; i++) {
+				responses[i] = futures.get(i).get();
+			}
+		} catch (ExecutionException exc) {
+			throw exc.getCause();
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new UnknownHostException(Strings.compile("Interrupted while resolving {}", hostName));
+		} finally {
+			for (Future<byte[]> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return responses;
+	}
+
 	private byte[] sendRequest(String hostName, int recordType) throws IOException {
+		QueryConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+		if (concurrencyLimiter == null) {
+			return sendLimitlessRequest(hostName, recordType);
+		}
+		concurrencyLimiter.acquire(timeout);
+		boolean succeeded = false;
+		try {
+			byte[] response = sendLimitlessRequest(hostName, recordType);
+			succeeded = true;
+			return response;
+		} finally {
+			concurrencyLimiter.release(succeeded);
+		}
+	}
+
+	private byte[] sendLimitlessRequest(String hostName, int recordType) throws IOException {
 		short ID = (short)requestIdGenerator.nextInt(32767);
+		byte[] dnsFrame = encodeRequest(ID, hostName, recordType);
+		DatagramPacket packet;
+		byte[] response;
+		try (DatagramSocket socket = new DatagramSocket()){
+			socket.setSoTimeout(timeout);
+		    DatagramPacket dnsReqPacket = new DatagramPacket(dnsFrame, dnsFrame.length, dNSServerIP, dNSServerPort);
+		    socket.send(dnsReqPacket);
+		    response = new byte[1024];
+		    packet = new DatagramPacket(response, response.length);
+		    socket.receive(packet);
+		} catch (SocketTimeoutException exc) {
+			throw new UnknownHostException(Strings.compile("Query for {} to {}:{} timed out", hostName, dNSServerIP.getHostAddress(), dNSServerPort));
+		}
+		if (isTruncated(response)) {
+			return sendRequestOverTCP(hostName, dnsFrame, timeout);
+		}
+		return response;
+	}
+
+	//Only the NXDOMAIN answers and the empty NOERROR ones establish that the name has no records:
+	//the other response codes, like SERVFAIL and REFUSED, are reported as transient failures
+	private void checkResponseCode(String name, byte[] response) throws UnknownHostException {
+		if (isFailed(response)) {
+			throw new UnknownHostException(
+				Strings.compile("Query for {} to {}:{} failed with response code {}", name, dNSServerIP.getHostAddress(), dNSServerPort, response[3] & 0x0F)
+			);
+		}
+	}
+
+	private boolean isFailed(byte[] response) {
+		int responseCode = response[3] & 0x0F;
+		return responseCode != RESPONSE_CODE_NO_ERROR && responseCode != RESPONSE_CODE_NAME_ERROR;
+	}
+
+	private boolean isTruncated(byte[] response) {
+		return (response[2] & 0x02) != 0;
+	}
+
+	private byte[] sendRequestOverTCP(String hostName, byte[] dnsFrame, int timeout) throws IOException {
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(dNSServerIP, dNSServerPort), timeout);
+			socket.setSoTimeout(timeout);
+			DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+			output.writeShort(dnsFrame.length);
+			output.write(dnsFrame);
+			output.flush();
+			DataInputStream input = new DataInputStream(socket.getInputStream());
+			byte[] response = new byte[input.readUnsignedShort()];
+			input.readFully(response);
+			return response;
+		} catch (SocketTimeoutException exc) {
+			throw new UnknownHostException(Strings.compile("Query for {} to {}:{} over TCP timed out", hostName, dNSServerIP.getHostAddress(), dNSServerPort));
+		}
+	}
+
+	byte[] encodeRequest(short ID, String hostName, int recordType) throws IOException {
 		try (
 			ByteArrayOutputStream requestContentStream = new ByteArrayOutputStream();
 			DataOutputStream requestWrapper = new DataOutputStream(requestContentStream);
@@ -191,21 +694,17 @@ public class DNSClientHostResolver implements HostResolver {
 			requestWrapper.writeByte(0);
 			requestWrapper.writeShort(recordType);
 			requestWrapper.writeShort(1);
-			byte[] dnsFrame = requestContentStream.toByteArray();
-			DatagramPacket packet;
-			byte[] response;
-			try (DatagramSocket socket = new DatagramSocket()){
-			    DatagramPacket dnsReqPacket = new DatagramPacket(dnsFrame, dnsFrame.length, dNSServerIP, dNSServerPort);
-			    socket.send(dnsReqPacket);
-			    response = new byte[1024];
-			    packet = new DatagramPacket(response, response.length);
-			    socket.receive(packet);
-			}
-			return response;
+			return requestContentStream.toByteArray();
 		}
 	}
 
-	private Map<byte[], String> parseResponse(byte[] responseContent) throws IOException {
+	Map<byte[], String> parseResponse(byte[] responseContent) throws IOException {
+		return parseResponse(responseContent, null);
+	}
+
+	//When the timeToLive holder is passed, its first element is lowered to the lowest time to live,
+	//in seconds, of the parsed records
+	Map<byte[], String> parseResponse(byte[] responseContent, long[] timeToLive) throws IOException {
 		try (InputStream responseContentStream = new ByteArrayInputStream(responseContent);
 			DataInputStream responseWrapper = new DataInputStream(responseContentStream)
 		) {
@@ -220,11 +719,11 @@ public class DNSClientHostResolver implements HostResolver {
 			    }
 			}
 			responseWrapper.skip(4);
-			byte firstBytes = responseWrapper.readByte();
-			int firstTwoBits = (firstBytes & 0b11000000) >>> 6;
 			Map<byte[], String> valueToDomainMap = new LinkedHashMap<>();
 			try (ByteArrayOutputStream label = new ByteArrayOutputStream();) {
 				for(int i = 0; i < ANCOUNT; i++) {
+					byte firstBytes = responseWrapper.readByte();
+					int firstTwoBits = (firstBytes & 0b11000000) >>> 6;
 				    if(firstTwoBits == 3) {
 				        byte currentByte = responseWrapper.readByte();
 				        boolean stop = false;
@@ -246,7 +745,11 @@ public class DNSClientHostResolver implements HostResolver {
 					                labels.add(currentLabel);
 					            } else {
 					                stop = true;
-					                responseWrapper.skip(8);
+					                responseWrapper.skip(4);
+					                long TTL = responseWrapper.readInt() & 0xFFFFFFFFL;
+					                if (timeToLive != null && (timeToLive[0] < 0 || TTL < timeToLive[0])) {
+					                	timeToLive[0] = TTL;
+					                }
 					                int RDLENGTH = responseWrapper.readShort();
 					                for(int s = 0; s < RDLENGTH; s++) {
 					                	RDATA.add(responseWrapper.readByte());
@@ -274,8 +777,6 @@ public class DNSClientHostResolver implements HostResolver {
 			        		);
 				        }
 				    }
-				    firstBytes = responseWrapper.readByte();
-				    firstTwoBits = (firstBytes & 0b11000000) >>> 6;
 				}
 			}
 			return valueToDomainMap;
@@ -293,9 +794,22 @@ public class DNSClientHostResolver implements HostResolver {
 	}
 
 	public Collection<String> resolveHostForAddress(byte[] iPAddressAsBytes) {
+		ExpiringCache<ByteBuffer, Collection<String>> reverseCache = this.reverseCache;
+		ByteBuffer cacheKey = null;
+		if (reverseCache != null) {
+			cacheKey = ByteBuffer.wrap(iPAddressAsBytes);
+			Collection<String> domains = reverseCache.get(cacheKey);
+			if (domains != null) {
+				return new ArrayList<>(domains);
+			}
+		}
 		Map<byte[], String> iPToDomainMap = new LinkedHashMap<>();
+		long[] timeToLive = {-1};
 		try {
-			iPToDomainMap.putAll(parseResponse(sendRequest(iPAddressAsBytesToReversedString(iPAddressAsBytes), RECORD_TYPE_PTR)));
+			String reversedName = iPAddressAsBytesToReversedString(iPAddressAsBytes);
+			byte[] response = sendRequest(reversedName, RECORD_TYPE_PTR);
+			checkResponseCode(reversedName, response);
+			iPToDomainMap.putAll(parseResponse(response, timeToLive));
 		} catch (IOException exc) {
 			Driver.throwException(exc);
 		}
@@ -303,40 +817,150 @@ public class DNSClientHostResolver implements HostResolver {
 		iPToDomainMap.forEach((key, value) -> {
 			domains.add(hostNameAsBytesToString(key));
 		});
+		if (reverseCache != null) {
+			reverseCache.put(
+				ByteBuffer.wrap(iPAddressAsBytes.clone()),
+				Collections.unmodifiableCollection(new ArrayList<>(domains)),
+				domains.isEmpty() ? reverseCache.negativeTimeToLive : timeToLive[0] * 1000
+			);
+		}
 		return domains;
 	}
 
-	private String iPAddressAsBytesToReversedString(byte[] iPAddressAsByte) {
-		if (iPAddressAsByte.length != 4 && iPAddressAsByte.length != 16) {
-			throw new IllegalArgumentException("array must contain 4 or 16 elements");
+	//Returns the SRV records of the service (for example _http._tcp.example.com) in the order in which
+	//RFC 2782 prescribes to contact them: the order among the records with the same priority changes at each call
+	public List<ServiceRecord> resolveService(String serviceName) {
+		return ServiceRecord.order(getServiceRecords(serviceName));
+	}
+
+	//Returns the record to contact first or null if the service has no records
+	public ServiceRecord selectService(String serviceName) {
+		return ServiceRecord.select(getServiceRecords(serviceName));
+	}
+
+	private List<ServiceRecord> getServiceRecords(String serviceName) {
+		String cacheKey = serviceName.toLowerCase();
+		if (cacheKey.endsWith(".")) {
+			cacheKey = cacheKey.substring(0, cacheKey.length() - 1);
 		}
+		ExpiringCache<String, List<ServiceRecord>> serviceCache = this.serviceCache;
+		if (serviceCache != null) {
+			List<ServiceRecord> records = serviceCache.get(cacheKey);
+			if (records != null) {
+				return records;
+			}
+		}
+		List<ServiceRecord> records = null;
+		long[] timeToLive = {-1};
+		try {
+			byte[] response = sendRequest(cacheKey, RECORD_TYPE_SRV);
+			//A failure is not cached as the absence of records
+			checkResponseCode(cacheKey, response);
+			records = Collections.unmodifiableList(parseServiceResponse(response, timeToLive));
+		} catch (IOException exc) {
+			Driver.throwException(exc);
+		}
+		if (serviceCache != null) {
+			serviceCache.put(cacheKey, records, records.isEmpty() ? serviceCache.negativeTimeToLive : timeToLive[0] * 1000);
+		}
+		return records;
+	}
 
-		StringBuilder sb = new StringBuilder();
-		if (iPAddressAsByte.length == 4) {
-			for (int i = iPAddressAsByte.length - 1; i >= 0; i--) {
-				sb.append(iPAddressAsByte[i] & 0xFF);
-				if (i > 0) {
-					sb.append(".");
-				}
+	List<ServiceRecord> parseServiceResponse(byte[] responseContent, long[] timeToLive) throws IOException {
+		try {
+			ByteBuffer response = ByteBuffer.wrap(responseContent);
+			int QDCOUNT = response.getShort(4) & 0xFFFF;
+			int ANCOUNT = response.getShort(6) & 0xFFFF;
+			int position = 12;
+			for (int i = 0; i < QDCOUNT; i++) {
+				position = readName(responseContent, position, null) + 4;
 			}
-		} else {
-			int[] pieces = new int[2];
-			for (int i = iPAddressAsByte.length - 1; i >= 0; i--) {
-				pieces[0] = (iPAddressAsByte[i] & 0xFF) >> 4;
-				pieces[1] = iPAddressAsByte[i] & 0xF;
-				for (int j = pieces.length - 1; j >= 0; j--) {
-					sb.append(Integer.toHexString(pieces[j]));
-					if (i > 0 || j > 0) {
-						sb.append(".");
+			List<ServiceRecord> records = new ArrayList<>();
+			for (int i = 0; i < ANCOUNT; i++) {
+				position = readName(responseContent, position, null);
+				int recordType = response.getShort(position) & 0xFFFF;
+				long TTL = response.getInt(position + 4) & 0xFFFFFFFFL;
+				int RDLENGTH = response.getShort(position + 8) & 0xFFFF;
+				position += 10;
+				if (recordType == RECORD_TYPE_SRV) {
+					StringBuilder target = new StringBuilder();
+					readName(responseContent, position + 6, target);
+					records.add(
+						new ServiceRecord(
+							response.getShort(position) & 0xFFFF,
+							response.getShort(position + 2) & 0xFFFF,
+							response.getShort(position + 4) & 0xFFFF,
+							target.toString(),
+							TTL * 1000
+						)
+					);
+					if (timeToLive != null && (timeToLive[0] < 0 || TTL < timeToLive[0])) {
+						timeToLive[0] = TTL;
 					}
 				}
+				position += RDLENGTH;
+			}
+			return records;
+		} catch (IndexOutOfBoundsException exc) {
+			throw new IOException("Malformed DNS response", exc);
+		}
+	}
+
+	//Reads the name, following the compression pointers, at the position and returns the position that follows it
+	private int readName(byte[] message, int position, StringBuilder name) throws IOException {
+		int nextPosition = -1;
+		for (int jumps = 0; ; ) {
+			int length = message[position] & 0xFF;
+			if ((length & 0xC0) == 0xC0) {
+				if (++jumps > 127) {
+					throw new IOException("Compression loop in DNS response");
+				}
+				if (nextPosition < 0) {
+					nextPosition = position + 2;
+				}
+				position = ((length & 0x3F) << 8) | (message[position + 1] & 0xFF);
+				continue;
+			}
+			++position;
+			if (length == 0) {
+				return nextPosition < 0 ? position : nextPosition;
+			}
+			if (name != null) {
+				if (name.length() > 0) {
+					name.append('.');
+				}
+				name.append(new String(message, position, length, StandardCharsets.UTF_8));
 			}
+			position += length;
 		}
+	}
+
+	//The name is written in a buffer reused by the thread: the octets of the IPv4 addresses are taken from a table.
+	//It is also used to route the reverse lookups by SuffixRoutingHostResolver
+	static String iPAddressAsBytesToReversedString(byte[] iPAddressAsByte) {
+		if (iPAddressAsByte.length != 4 && iPAddressAsByte.length != 16) {
+			throw new IllegalArgumentException("array must contain 4 or 16 elements");
+		}
+		char[] buffer = reversedNameBuffer.get();
+		int length = 0;
 		if (iPAddressAsByte.length == 4) {
-			return sb.toString() + "." + IPV4_DOMAIN;
-		} else {
-			return sb.toString() + "." + IPV6_DOMAIN;
+			for (int i = iPAddressAsByte.length - 1; i >= 0; i--) {
+				char[] octet = DECIMAL_OCTETS[iPAddressAsByte[i] & 0xFF];
+				System.arraycopy(octet, 0, buffer, length, octet.length);
+				length += octet.length;
+				buffer[length++] = '.';
+			}
+			IPV4_DOMAIN.getChars(0, IPV4_DOMAIN.length(), buffer, length);
+			return new String(buffer, 0, length + IPV4_DOMAIN.length());
+		}
+		for (int i = iPAddressAsByte.length - 1; i >= 0; i--) {
+			buffer[length++] = HEX_DIGITS[iPAddressAsByte[i] & 0xF];
+			buffer[length++] = '.';
+			buffer[length++] = HEX_DIGITS[(iPAddressAsByte[i] >> 4) & 0xF];
+			buffer[length++] = '.';
 		}
+		IPV6_DOMAIN.getChars(0, IPV6_DOMAIN.length(), buffer, length);
+		return new String(buffer, 0, length + IPV6_DOMAIN.length());
 	}
 
 	private String hostNameAsBytesToString(byte[] hostNameAsBytes) {
@@ -370,4 +994,56 @@ public class DNSClientHostResolver implements HostResolver {
 		}
 		return sb.toString();
 	}
-}
\ No newline at end of file
+
+	private static class ExpiringCache<K, V> {
+		private final Map<K, Entry<V>> entries;
+		private final int maximumSize;
+		private final long negativeTimeToLive;
+
+		private ExpiringCache(int maximumSize, long negativeTimeToLive) {
+			this.entries = new ConcurrentHashMap<>();
+			this.maximumSize = maximumSize;
+			this.negativeTimeToLive = negativeTimeToLive;
+		}
+
+		private V get(K key) {
+			Entry<V> entry = entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expirationTime <= System.currentTimeMillis()) {
+				entries.remove(key, entry);
+				return null;
+			}
+			return entry.value;
+		}
+
+		//When the cache is full the expired entries are removed and, if they are not enough, a tenth of the others
+		private void put(K key, V value, long timeToLive) {
+			if (timeToLive <= 0) {
+				return;
+			}
+			if (entries.size() >= maximumSize) {
+				long currentTime = System.currentTimeMillis();
+				entries.values().removeIf(entry -> entry.expirationTime <= currentTime);
+				Iterator<K> keyIterator = entries.keySet().iterator();
+				for (int toBeRemoved = entries.size() >= maximumSize ? Math.max(maximumSize / 10, 1) : 0; toBeRemoved > 0 && keyIterator.hasNext(); --toBeRemoved) {
+					keyIterator.next();
+					keyIterator.remove();
+				}
+			}
+			entries.put(key, new Entry<>(value, System.currentTimeMillis() + timeToLive));
+		}
+
+		private static class Entry<V> {
+			private final V value;
+			private final long expirationTime;
+
+			private Entry(V value, long expirationTime) {
+				this.value = value;
+				this.expirationTime = expirationTime;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,517 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.burningwave.core.function.ThrowingFunction;
+
+//Routes every query to the server with the lowest expected cost, that is its average latency plus its failure rate
+//multiplied by its timeout, and falls back on the other servers when it fails. The servers that fail more than
+//the ejection threshold times in a row are not queried until the ejection time elapses. When the hedging is
+//enabled and the chosen server does not answer within the given percentile of its latencies, the query is
+//sent also to the second best server and the first answer is used. With the rotation enabled the queries are
+//instead spread in turn over the servers that are not ejected
+public class DNSClientHostResolverPool implements HostResolver {
+	public static final double DEFAULT_SMOOTHING_FACTOR;
+	public static final int DEFAULT_EJECTION_THRESHOLD;
+	public static final long DEFAULT_EJECTION_TIME;
+	public static final int DEFAULT_NDOTS;
+	public static final int DEFAULT_ATTEMPTS;
+
+	static {
+		DEFAULT_SMOOTHING_FACTOR = 0.2;
+		DEFAULT_EJECTION_THRESHOLD = 3;
+		DEFAULT_EJECTION_TIME = 30000;
+		DEFAULT_NDOTS = 1;
+		DEFAULT_ATTEMPTS = 2;
+	}
+
+	private final List<Server> servers;
+	private final AtomicInteger rotation;
+	private volatile double hedgingPercentile;
+	private volatile int ejectionThreshold;
+	private volatile long ejectionTime;
+	private volatile ExecutorService executor;
+	private volatile boolean rotate;
+	private volatile int attempts;
+	private volatile int ndots;
+	private volatile List<String> searchDomains;
+
+	public DNSClientHostResolverPool(DNSClientHostResolver... resolvers) {
+		this(Arrays.asList(resolvers));
+	}
+
+	public DNSClientHostResolverPool(Collection<DNSClientHostResolver> resolvers) {
+		if (resolvers == null || resolvers.isEmpty()) {
+			throw new IllegalArgumentException("Resolvers are required");
+		}
+		List<Server> servers = new ArrayList<>();
+		for (DNSClientHostResolver resolver : resolvers) {
+			if (resolver == null) {
+				throw new IllegalArgumentException(Strings.compile("Resolver at index [{}] is null", servers.size()));
+			}
+			servers.add(new Server(resolver));
+		}
+		this.servers = Collections.unmodifiableList(servers);
+		this.rotation = new AtomicInteger();
+		this.ejectionThreshold = DEFAULT_EJECTION_THRESHOLD;
+		this.ejectionTime = DEFAULT_EJECTION_TIME;
+		this.attempts = 1;
+		this.ndots = DEFAULT_NDOTS;
+		this.searchDomains = Collections.emptyList();
+	}
+
+	public static DNSClientHostResolverPool newInstance(Supplier<Collection<Map<String, Object>>> configuration) {
+		return new DNSClientHostResolverPool(DNSClientHostResolver.newInstances(configuration));
+	}
+
+	public static DNSClientHostResolverPool newInstance(Path resolvConf) throws IOException {
+		return newInstance(resolvConf, DNSClientHostResolver.DEFAULT_PORT);
+	}
+
+	//Reads a file in the resolv.conf format: the nameserver, domain and search directives and the ndots, timeout,
+	//attempts and rotate options are supported. The servers are queried on the given port
+	public static DNSClientHostResolverPool newInstance(Path resolvConf, int port) throws IOException {
+		List<String> serverIPs = new ArrayList<>();
+		List<String> searchDomains = Collections.emptyList();
+		int ndots = DEFAULT_NDOTS;
+		int timeout = DNSClientHostResolver.DEFAULT_TIMEOUT;
+		int attempts = DEFAULT_ATTEMPTS;
+		boolean rotate = false;
+		for (String line : Files.readAllLines(resolvConf, StandardCharsets.UTF_8)) {
+			String[] tokens = line.trim().split("\\s+");
+			if (tokens.length < 2 || tokens[0].startsWith("#") || tokens[0].startsWith(";")) {
+				continue;
+			}
+			if (tokens[0].equals("nameserver")) {
+				serverIPs.add(tokens[1]);
+			} else if (tokens[0].equals("domain") || tokens[0].equals("search")) {
+				//As for the system resolver the last directive wins
+				searchDomains = new ArrayList<>();
+				for (int i = 1; i < tokens.length && !tokens[i].startsWith("#") && !tokens[i].startsWith(";"); i++) {
+					searchDomains.add(tokens[i]);
+				}
+			} else if (tokens[0].equals("options")) {
+				//As for the system resolver the values are clamped: a timeout of 0 seconds would disable the
+				//timeout of the sockets and at least one attempt is made
+				for (int i = 1; i < tokens.length; i++) {
+					String option = tokens[i];
+					if (option.startsWith("ndots:")) {
+						ndots = Math.min(parseOptionValue(option), 15);
+					} else if (option.startsWith("timeout:")) {
+						timeout = Math.max(1, Math.min(parseOptionValue(option), 30)) * 1000;
+					} else if (option.startsWith("attempts:")) {
+						attempts = Math.max(1, Math.min(parseOptionValue(option), 5));
+					} else if (option.equals("rotate")) {
+						rotate = true;
+					}
+				}
+			}
+		}
+		if (serverIPs.isEmpty()) {
+			//The system resolver queries the local server when none is configured
+			serverIPs.add("127.0.0.1");
+		}
+		List<DNSClientHostResolver> resolvers = new ArrayList<>();
+		for (String serverIP : serverIPs) {
+			resolvers.add(new DNSClientHostResolver(serverIP, port).setTimeout(timeout));
+		}
+		return new DNSClientHostResolverPool(resolvers).setRotate(rotate).setAttempts(attempts)
+			.setNdots(ndots).setSearchDomains(searchDomains);
+	}
+
+	private static int parseOptionValue(String option) {
+		try {
+			return Math.max(Integer.parseInt(option.substring(option.indexOf(':') + 1)), 0);
+		} catch (NumberFormatException exc) {
+			throw new IllegalArgumentException(Strings.compile("Invalid option: {}", option), exc);
+		}
+	}
+
+	//When enabled every query starts from the next server instead of the one with the lowest expected cost
+	public DNSClientHostResolverPool setRotate(boolean rotate) {
+		this.rotate = rotate;
+		return this;
+	}
+
+	public boolean isRotate() {
+		return rotate;
+	}
+
+	//The number of times the servers are tried in turn before giving up
+	public DNSClientHostResolverPool setAttempts(int attempts) {
+		if (attempts < 1) {
+			throw new IllegalArgumentException(Strings.compile("Invalid attempts: {}", attempts));
+		}
+		this.attempts = attempts;
+		return this;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	//The names with at least ndots dots and the ones ending with a dot are considered fully qualified
+	//and are queried as they are without trying the search domains
+	public DNSClientHostResolverPool setNdots(int ndots) {
+		if (ndots < 0) {
+			throw new IllegalArgumentException(Strings.compile("Invalid ndots: {}", ndots));
+		}
+		this.ndots = ndots;
+		return this;
+	}
+
+	public int getNdots() {
+		return ndots;
+	}
+
+	//The domains appended in turn to the names that are not fully qualified: the name as it is is tried last
+	public DNSClientHostResolverPool setSearchDomains(List<String> searchDomains) {
+		List<String> domains = new ArrayList<>();
+		for (String domain : searchDomains) {
+			domain = domain.startsWith(".") ? domain.substring(1) : domain;
+			domain = domain.endsWith(".") ? domain.substring(0, domain.length() - 1) : domain;
+			if (!domain.isEmpty()) {
+				domains.add(domain);
+			}
+		}
+		this.searchDomains = Collections.unmodifiableList(domains);
+		return this;
+	}
+
+	public List<String> getSearchDomains() {
+		return searchDomains;
+	}
+
+	//A percentile between 0 and 1 (for example 0.95): 0 disables the hedging
+	public DNSClientHostResolverPool setHedgingPercentile(double hedgingPercentile) {
+		if (hedgingPercentile < 0 || hedgingPercentile >= 1) {
+			throw new IllegalArgumentException(Strings.compile("Invalid hedging percentile: {}", hedgingPercentile));
+		}
+		this.hedgingPercentile = hedgingPercentile;
+		return this;
+	}
+
+	public DNSClientHostResolverPool setEjectionThreshold(int ejectionThreshold) {
+		if (ejectionThreshold < 1) {
+			throw new IllegalArgumentException(Strings.compile("Invalid ejection threshold: {}", ejectionThreshold));
+		}
+		this.ejectionThreshold = ejectionThreshold;
+		return this;
+	}
+
+	//The milliseconds for which a server that keeps failing is not queried
+	public DNSClientHostResolverPool setEjectionTime(long ejectionTime) {
+		if (ejectionTime < 0) {
+			throw new IllegalArgumentException(Strings.compile("Invalid ejection time: {}", ejectionTime));
+		}
+		this.ejectionTime = ejectionTime;
+		return this;
+	}
+
+	//The executor on which the hedged queries run: if not set, one supplied by HostResolutionExecutors is used
+	public DNSClientHostResolverPool setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	public List<Server> getServers() {
+		return servers;
+	}
+
+	@Override
+	public Collection<InetAddress> getAllAddressesForHostName(Map<String, Object> argumentMap) {
+		List<String> searchDomains = this.searchDomains;
+		String hostName = (String)getMethodArguments(argumentMap)[0];
+		if (searchDomains.isEmpty() || isFullyQualified(hostName)) {
+			return resolve(server -> server.resolver.getAllAddressesForHostName(argumentMap));
+		}
+		for (String domain : searchDomains) {
+			Object[] arguments = getMethodArguments(argumentMap).clone();
+			arguments[0] = hostName + "." + domain;
+			HostResolutionRequest request = new HostResolutionRequest(arguments);
+			Collection<InetAddress> addresses = resolve(server -> server.resolver.getAllAddressesForHostName(request));
+			if (!addresses.isEmpty()) {
+				long timeToLive = request.getTimeToLive();
+				if (timeToLive >= 0) {
+					setTimeToLive(argumentMap, timeToLive);
+				}
+				//The addresses are named as requested and not as the expanded name
+				Collection<InetAddress> renamedAddresses = new ArrayList<>(addresses.size());
+				for (InetAddress address : addresses) {
+					try {
+						renamedAddresses.add(InetAddress.getByAddress(hostName, address.getAddress()));
+					} catch (UnknownHostException exc) {
+						Driver.throwException(exc);
+					}
+				}
+				return renamedAddresses;
+			}
+		}
+		return resolve(server -> server.resolver.getAllAddressesForHostName(argumentMap));
+	}
+
+	private boolean isFullyQualified(String hostName) {
+		if (hostName.endsWith(".")) {
+			return true;
+		}
+		int dots = 0;
+		for (int i = 0; i < hostName.length(); i++) {
+			if (hostName.charAt(i) == '.') {
+				++dots;
+			}
+		}
+		return dots >= ndots;
+	}
+
+	@Override
+	public Collection<String> getAllHostNamesForHostAddress(Map<String, Object> argumentMap) {
+		return resolve(server -> server.resolver.getAllHostNamesForHostAddress(argumentMap));
+	}
+
+	private <T> Collection<T> resolve(ThrowingFunction<Server, Collection<T>, Throwable> resolution) {
+		List<Server> candidates = rank();
+		Throwable exception = null;
+		int index = 0;
+		if (hedgingPercentile > 0 && candidates.size() > 1) {
+			try {
+				return resolveWithHedging(candidates.get(0), candidates.get(1), resolution);
+			} catch (Throwable exc) {
+				exception = exc;
+				index = 2;
+			}
+		}
+		for (int attempts = this.attempts; attempts > 0; --attempts, index = 0) {
+			for (; index < candidates.size(); index++) {
+				try {
+					return candidates.get(index).resolve(resolution);
+				} catch (Throwable exc) {
+					exception = exc;
+				}
+			}
+		}
+		return Driver.throwException(exception);
+	}
+
+	private <T> Collection<T> resolveWithHedging(
+		Server primary,
+		Server secondary,
+		ThrowingFunction<Server, Collection<T>, Throwable> resolution
+	) throws Throwable {
+		ExecutorCompletionService<Collection<T>> completionService = new ExecutorCompletionService<>(getExecutor());
+		List<Future<Collection<T>>> futures = new ArrayList<>(2);
+		futures.add(completionService.submit(() -> primary.resolveAndRethrow(resolution)));
+		try {
+			Future<Collection<T>> future = completionService.poll(primary.getLatencyPercentile(hedgingPercentile), TimeUnit.NANOSECONDS);
+			Throwable exception = null;
+			if (future != null) {
+				try {
+					return future.get();
+				} catch (ExecutionException exc) {
+					exception = exc.getCause();
+				}
+			}
+			futures.add(completionService.submit(() -> secondary.resolveAndRethrow(resolution)));
+			for (int pending = exception != null ? 1 : 2; pending > 0; --pending) {
+				try {
+					return completionService.take().get();
+				} catch (ExecutionException exc) {
+					exception = exc.getCause();
+				}
+			}
+			throw exception;
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new UnknownHostException("Interrupted while waiting for the DNS servers");
+		} finally {
+			for (Future<Collection<T>> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private ExecutorService getExecutor() {
+		ExecutorService executor = this.executor;
+		if (executor == null) {
+			synchronized (this) {
+				if ((executor = this.executor) == null) {
+					executor = this.executor = HostResolutionExecutors.newExecutor();
+				}
+			}
+		}
+		return executor;
+	}
+
+	//The available servers sorted by expected cost followed by the ejected ones sorted by end of ejection
+	private List<Server> rank() {
+		long currentTime = System.currentTimeMillis();
+		List<Server> available = new ArrayList<>(servers.size());
+		List<Server> ejected = new ArrayList<>();
+		for (Server server : servers) {
+			if (server.ejectedUntil > currentTime) {
+				ejected.add(server);
+			} else {
+				available.add(server);
+			}
+		}
+		if (rotate) {
+			if (!available.isEmpty()) {
+				Collections.rotate(available, -Math.floorMod(rotation.getAndIncrement(), available.size()));
+			}
+		} else {
+			available.sort(Comparator.comparingDouble(Server::getExpectedCost));
+		}
+		ejected.sort(Comparator.comparingLong(server -> server.ejectedUntil));
+		available.addAll(ejected);
+		return available;
+	}
+
+	public class Server {
+		private static final int LATENCY_SAMPLE_SIZE = 64;
+
+		private final DNSClientHostResolver resolver;
+		private final long[] latencySamples;
+		private int latencySampleCount;
+		private double averageLatency;
+		private double failureRate;
+		private int consecutiveFailures;
+		private volatile long ejectedUntil;
+
+		private Server(DNSClientHostResolver resolver) {
+			this.resolver = resolver;
+			this.latencySamples = new long[LATENCY_SAMPLE_SIZE];
+		}
+
+		public DNSClientHostResolver getResolver() {
+			return resolver;
+		}
+
+		//The exponentially weighted moving average of the latency in nanoseconds
+		public synchronized double getAverageLatency() {
+			return averageLatency;
+		}
+
+		public synchronized double getFailureRate() {
+			return failureRate;
+		}
+
+		public boolean isEjected() {
+			return ejectedUntil > System.currentTimeMillis();
+		}
+
+		synchronized double getExpectedCost() {
+			return averageLatency + failureRate * TimeUnit.MILLISECONDS.toNanos(resolver.getTimeout());
+		}
+
+		//A server without samples is hedged immediately
+		synchronized long getLatencyPercentile(double percentile) {
+			int sampleCount = Math.min(latencySampleCount, LATENCY_SAMPLE_SIZE);
+			if (sampleCount == 0) {
+				return 0;
+			}
+			long[] samples = Arrays.copyOf(latencySamples, sampleCount);
+			Arrays.sort(samples);
+			return samples[Math.min((int)Math.ceil(percentile * sampleCount) - 1, sampleCount - 1)];
+		}
+
+		private <T> Collection<T> resolveAndRethrow(ThrowingFunction<Server, Collection<T>, Throwable> resolution) throws Exception {
+			try {
+				return resolve(resolution);
+			} catch (Throwable exc) {
+				return Driver.throwException(exc);
+			}
+		}
+
+		private <T> Collection<T> resolve(ThrowingFunction<Server, Collection<T>, Throwable> resolution) throws Throwable {
+			long startTime = System.nanoTime();
+			try {
+				Collection<T> results = resolution.apply(this);
+				onSuccess(System.nanoTime() - startTime);
+				return results;
+			} catch (Throwable exc) {
+				if (!Thread.currentThread().isInterrupted()) {
+					onFailure();
+				}
+				throw exc;
+			}
+		}
+
+		private synchronized void onSuccess(long latency) {
+			averageLatency = latencySampleCount == 0 ?
+				latency :
+				averageLatency + DEFAULT_SMOOTHING_FACTOR * (latency - averageLatency);
+			latencySamples[latencySampleCount++ % LATENCY_SAMPLE_SIZE] = latency;
+			if (latencySampleCount == Integer.MAX_VALUE) {
+				latencySampleCount = LATENCY_SAMPLE_SIZE;
+			}
+			failureRate *= 1 - DEFAULT_SMOOTHING_FACTOR;
+			consecutiveFailures = 0;
+			ejectedUntil = 0;
+		}
+
+		private synchronized void onFailure() {
+			failureRate += DEFAULT_SMOOTHING_FACTOR * (1 - failureRate);
+			if (++consecutiveFailures >= ejectionThreshold) {
+				ejectedUntil = System.currentTimeMillis() + ejectionTime;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return Strings.compile(
+				"{}:{} (average latency: {} ns, failure rate: {}, ejected: {})",
+				resolver.getServerIP().getHostAddress(), resolver.getServerPort(), (long)getAverageLatency(), getFailureRate(), isEjected()
+			);
+		}
+	}
+
+}
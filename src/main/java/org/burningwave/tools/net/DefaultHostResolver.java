@@ -33,6 +33,7 @@ import static org.burningwave.core.assembler.StaticComponentContainer.Fields;
 import static org.burningwave.core.assembler.StaticComponentContainer.Methods;
 import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -42,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -60,7 +62,12 @@ public class DefaultHostResolver implements HostResolver {
 	static final Class<?> nameServiceClass;
 	static final Method getAllAddressesForHostNameMethod;
 	static final Method getAllHostNamesForHostAddressMethod;
+	private static final MethodHandle getAllAddressesForHostNameMethodHandle;
+	private static final MethodHandle getAllHostNamesForHostAddressMethodHandle;
+	private static final Map<Method, MethodHandle> methodHandles;
 	static final List<Object> nameServices;
+	//Not null when the JDK uses the resolver provider of this library (JDK 18 and later)
+	static final BindableNameService bindableNameService;
 	private static final Function<Object, Stream<InetAddress>> inetAddressSupplier;
 
 	static {
@@ -90,7 +97,16 @@ public class DefaultHostResolver implements HostResolver {
 			),
 			nameServiceClass
 		);
+		getAllAddressesForHostNameMethodHandle = findMethodHandle(getAllAddressesForHostNameMethod);
+		getAllHostNamesForHostAddressMethodHandle = findMethodHandle(getAllHostNamesForHostAddressMethod);
+		methodHandles = new ConcurrentHashMap<>();
 		nameServices = getNameServices();
+		Object nameService = Collection.class.isAssignableFrom(nameServiceFieldClass) ?
+			null :
+			Fields.getStaticDirect(nameServiceField);
+		bindableNameService = nameService instanceof BindableNameService ?
+			(BindableNameService)nameService :
+			null;
 		if (nameServices.isEmpty()) {
 			Driver.throwException(
 				new InitializeException(
@@ -116,6 +132,19 @@ public class DefaultHostResolver implements HostResolver {
         }
 	}
 
+	//The returned handle takes the name service and the arguments array and returns an Object: being stored
+	//in constants and invoked exactly, the calls to the name service can be inlined
+	private static MethodHandle findMethodHandle(Method method) {
+		MethodHandle methodHandle = null;
+		try {
+			//Unlike the direct handles, the handles obtained by unreflecting dispatch the interface methods virtually
+			methodHandle = Driver.getConsulter(method.getDeclaringClass()).unreflect(method);
+		} catch (IllegalAccessException exc) {
+			Driver.throwException(exc);
+		}
+		return methodHandle.asType(methodHandle.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+	}
+
 	private static List<Object> getNameServices() {
 		try {
 			//Initializing the nameServiceField
@@ -126,7 +155,10 @@ public class DefaultHostResolver implements HostResolver {
         	nameServices.addAll(Fields.getStaticDirect(nameServiceField));
         } else {
         	Object nameService = Fields.getStaticDirect(nameServiceField);
-        	if (nameService != null) {
+        	if (nameService instanceof BindableNameService) {
+        		//Calling the bound name service would run the interceptor again
+        		nameServices.add(((BindableNameService)nameService).getBuiltinNameService());
+        	} else if (nameService != null) {
         		nameServices.add(nameService);
         	}
         }
@@ -136,21 +168,18 @@ public class DefaultHostResolver implements HostResolver {
 	@Override
 	public Collection<InetAddress> getAllAddressesForHostName(Map<String, Object> argumentMap) {
 		Object[] arguments = getMethodArguments(argumentMap);
-		List<Object> nameServices = (List<Object>)argumentMap.get("nameServices");
-		if (nameServices == null) {
-			nameServices = DefaultHostResolver.nameServices;
-		}
+		List<Object> nameServices = getNameServices(argumentMap);
 		Collection<InetAddress> addresses = new ArrayList<>();
 		for (Object nameService : nameServices) {
 			if (nameService != null) {
 				try {
-					Object inetAddresses = Methods.invokeDirect(nameService, getAllAddressesForHostNameMethod.getName(), arguments);
+					Object inetAddresses = (Object)getAllAddressesForHostNameMethodHandle.invokeExact(nameService, arguments);
 					if (inetAddresses != null) {
 						inetAddressSupplier.apply(inetAddresses).forEach(addresses::add);
 					}
 				} catch (Throwable exc) {
 					if (!(exc instanceof UnknownHostException)) {
-						throw exc;
+						Driver.throwException(exc);
 					}
 				}
 			}
@@ -161,21 +190,18 @@ public class DefaultHostResolver implements HostResolver {
 	@Override
 	public Collection<String> getAllHostNamesForHostAddress(Map<String, Object> argumentMap) {
 		Object[] arguments = getMethodArguments(argumentMap);
-		List<Object> nameServices = (List<Object>)argumentMap.get("nameServices");
-		if (nameServices == null) {
-			nameServices = DefaultHostResolver.nameServices;
-		}
+		List<Object> nameServices = getNameServices(argumentMap);
 		Collection<String> hostNames = new ArrayList<>();
 		for (Object nameService : nameServices) {
 			if (nameService != null) {
 				try {
-					String hostName = Methods.invokeDirect(nameService, getAllHostNamesForHostAddressMethod.getName(), arguments);
+					String hostName = (String)(Object)getAllHostNamesForHostAddressMethodHandle.invokeExact(nameService, arguments);
 					if (hostName != null) {
 						hostNames.add(hostName);
 					}
 				} catch (Throwable exc) {
 					if (!(exc instanceof UnknownHostException)) {
-						throw exc;
+						Driver.throwException(exc);
 					}
 				}
 			}
@@ -183,11 +209,34 @@ public class DefaultHostResolver implements HostResolver {
 		return hostNames;
 	}
 
+	//Builds the arguments of a forward lookup that is not originated by the JDK: from JDK 18 the lookup
+	//also requires a policy and the one that searches for both IPv4 and IPv6 addresses is used
+	static Object[] newGetAllAddressesForHostNameArguments(String hostName) {
+		Class<?>[] parameterTypes = getAllAddressesForHostNameMethod.getParameterTypes();
+		Object[] arguments = new Object[parameterTypes.length];
+		arguments[0] = hostName;
+		if (parameterTypes.length > 1) {
+			arguments[1] = Methods.invokeStatic(parameterTypes[1], "of", 3);
+		}
+		return arguments;
+	}
+
+	private List<Object> getNameServices(Map<String, Object> argumentMap) {
+		List<Object> nameServices = argumentMap instanceof HostResolutionRequest ?
+			((HostResolutionRequest)argumentMap).nameServices :
+			(List<Object>)argumentMap.get(HostResolutionRequest.NAME_SERVICES_KEY);
+		return nameServices != null ? nameServices : DefaultHostResolver.nameServices;
+	}
+
 	@Override
 	public Object handle(Method method, Object... arguments) throws Throwable {
+		MethodHandle methodHandle = methodHandles.get(method);
+		if (methodHandle == null) {
+			methodHandle = methodHandles.computeIfAbsent(method, DefaultHostResolver::findMethodHandle);
+		}
 		for (Object nameService : nameServices) {
 			if (nameService != null) {
-				Object toRet = Methods.invokeDirect(nameService, method.getName(), arguments);
+				Object toRet = (Object)methodHandle.invokeExact(nameService, arguments);
 				if (toRet != null) {
 					return toRet;
 				}
@@ -0,0 +1,479 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+//A minimal authoritative DNS responder for A, AAAA and PTR queries over UDP and TCP
+//that can inject latency, packet loss and truncation: it is meant for tests and benchmarks
+public class EmbeddedDNSServer implements Closeable {
+	public static final int DEFAULT_TIME_TO_LIVE;
+	public static final int MAX_UDP_MESSAGE_SIZE;
+
+	static final short RECORD_TYPE_A;
+	static final short RECORD_TYPE_PTR;
+	static final short RECORD_TYPE_AAAA;
+	static final short RECORD_TYPE_SRV;
+	private static final String IPV4_DOMAIN;
+	private static final String IPV6_DOMAIN;
+	private static final int RESPONSE_CODE_NAME_ERROR;
+
+	static {
+		DEFAULT_TIME_TO_LIVE = 60;
+		MAX_UDP_MESSAGE_SIZE = 512;
+		RECORD_TYPE_A = 1;
+		RECORD_TYPE_PTR = 12;
+		RECORD_TYPE_AAAA = 28;
+		RECORD_TYPE_SRV = 33;
+		IPV4_DOMAIN = ".in-addr.arpa";
+		IPV6_DOMAIN = ".ip6.arpa";
+		RESPONSE_CODE_NAME_ERROR = 3;
+	}
+
+	private final Map<String, List<byte[]>> zone;
+	private final Map<String, List<byte[]>> services;
+	private final AtomicLong uDPQueryCounter;
+	private final AtomicLong tCPQueryCounter;
+	private final AtomicLong droppedResponseCounter;
+	private volatile int timeToLive;
+	private volatile long latency;
+	private volatile double packetLossProbability;
+	private volatile boolean truncateResponses;
+	private volatile int failureResponseCode;
+	private DatagramSocket uDPSocket;
+	private ServerSocket tCPSocket;
+	private ExecutorService executor;
+
+	public EmbeddedDNSServer() {
+		this(Collections.emptyMap());
+	}
+
+	public EmbeddedDNSServer(Map<String, ? extends Collection<String>> zone) {
+		this.zone = new ConcurrentHashMap<>();
+		this.services = new ConcurrentHashMap<>();
+		this.uDPQueryCounter = new AtomicLong();
+		this.tCPQueryCounter = new AtomicLong();
+		this.droppedResponseCounter = new AtomicLong();
+		this.timeToLive = DEFAULT_TIME_TO_LIVE;
+		for (Map.Entry<String, ? extends Collection<String>> addressesForHostName : zone.entrySet()) {
+			putHost(addressesForHostName.getKey(), addressesForHostName.getValue().toArray(new String[0]));
+		}
+	}
+
+	public EmbeddedDNSServer putHost(String hostName, String... iPs) {
+		List<byte[]> addresses = new ArrayList<>();
+		for (String iP : iPs) {
+			byte[] address = IPAddressUtil.INSTANCE.textToNumericFormat(iP);
+			if (address == null) {
+				throw new IllegalArgumentException(iP + " is not a valid ip address");
+			}
+			addresses.add(address);
+		}
+		zone.put(normalize(hostName), Collections.unmodifiableList(addresses));
+		return this;
+	}
+
+	public EmbeddedDNSServer removeHost(String hostName) {
+		zone.remove(normalize(hostName));
+		return this;
+	}
+
+	//Adds a SRV record to the ones of the service (for example _http._tcp.example.com)
+	public EmbeddedDNSServer putService(String serviceName, int priority, int weight, int port, String target) {
+		try (ByteArrayOutputStream recordDataStream = new ByteArrayOutputStream();
+			DataOutputStream recordDataWrapper = new DataOutputStream(recordDataStream)
+		) {
+			recordDataWrapper.writeShort(priority);
+			recordDataWrapper.writeShort(weight);
+			recordDataWrapper.writeShort(port);
+			recordDataWrapper.write(toLabels(normalize(target)));
+			recordDataWrapper.flush();
+			services.compute(normalize(serviceName), (name, records) -> {
+				List<byte[]> newRecords = records != null ? new ArrayList<>(records) : new ArrayList<>();
+				newRecords.add(recordDataStream.toByteArray());
+				return Collections.unmodifiableList(newRecords);
+			});
+		} catch (IOException exc) {
+			Driver.throwException(exc);
+		}
+		return this;
+	}
+
+	public EmbeddedDNSServer removeService(String serviceName) {
+		services.remove(normalize(serviceName));
+		return this;
+	}
+
+	public EmbeddedDNSServer setTimeToLive(int seconds) {
+		this.timeToLive = seconds;
+		return this;
+	}
+
+	public EmbeddedDNSServer setLatency(long millis) {
+		this.latency = millis;
+		return this;
+	}
+
+	public EmbeddedDNSServer setPacketLossProbability(double packetLossProbability) {
+		if (packetLossProbability < 0 || packetLossProbability > 1) {
+			throw new IllegalArgumentException("Packet loss probability must be between 0 and 1");
+		}
+		this.packetLossProbability = packetLossProbability;
+		return this;
+	}
+
+	//When enabled every UDP response is sent without answers and with the TC flag set
+	public EmbeddedDNSServer setTruncateResponses(boolean truncateResponses) {
+		this.truncateResponses = truncateResponses;
+		return this;
+	}
+
+	//When greater than 0 every response is sent without answers and with the given response code,
+	//for example 2 (SERVFAIL) or 5 (REFUSED)
+	public EmbeddedDNSServer setFailureResponseCode(int failureResponseCode) {
+		if (failureResponseCode < 0 || failureResponseCode > 15) {
+			throw new IllegalArgumentException("Response code must be between 0 and 15");
+		}
+		this.failureResponseCode = failureResponseCode;
+		return this;
+	}
+
+	public EmbeddedDNSServer start() {
+		return start(0);
+	}
+
+	//Binds the same port on UDP and TCP: with port 0 a free port is chosen
+	public synchronized EmbeddedDNSServer start(int port) {
+		if (executor != null) {
+			throw new IllegalStateException("Server already started");
+		}
+		try {
+			InetAddress loopbackAddress = InetAddress.getByAddress("localhost", new byte[] {127, 0, 0, 1});
+			tCPSocket = new ServerSocket();
+			tCPSocket.bind(new InetSocketAddress(loopbackAddress, port));
+			uDPSocket = new DatagramSocket(new InetSocketAddress(loopbackAddress, tCPSocket.getLocalPort()));
+		} catch (IOException exc) {
+			close();
+			Driver.throwException(exc);
+		}
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, EmbeddedDNSServer.class.getSimpleName() + " worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		DatagramSocket uDPSocket = this.uDPSocket;
+		ServerSocket tCPSocket = this.tCPSocket;
+		ExecutorService executor = this.executor;
+		executor.execute(() -> receiveUDPQueries(uDPSocket, executor));
+		executor.execute(() -> acceptTCPConnections(tCPSocket, executor));
+		return this;
+	}
+
+	public String getAddress() {
+		return "127.0.0.1";
+	}
+
+	public int getPort() {
+		return tCPSocket.getLocalPort();
+	}
+
+	public long getUDPQueryCount() {
+		return uDPQueryCounter.get();
+	}
+
+	public long getTCPQueryCount() {
+		return tCPQueryCounter.get();
+	}
+
+	public long getDroppedResponseCount() {
+		return droppedResponseCounter.get();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (uDPSocket != null) {
+			uDPSocket.close();
+			uDPSocket = null;
+		}
+		if (tCPSocket != null) {
+			try {
+				tCPSocket.close();
+			} catch (IOException exc) {}
+			tCPSocket = null;
+		}
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private void receiveUDPQueries(DatagramSocket socket, ExecutorService executor) {
+		while (!socket.isClosed()) {
+			try {
+				DatagramPacket packet = new DatagramPacket(new byte[MAX_UDP_MESSAGE_SIZE], MAX_UDP_MESSAGE_SIZE);
+				socket.receive(packet);
+				uDPQueryCounter.incrementAndGet();
+				executor.execute(() -> {
+					byte[] response = respond(Arrays.copyOf(packet.getData(), packet.getLength()), true);
+					if (response == null) {
+						return;
+					}
+					if (packetLossProbability > 0 && ThreadLocalRandom.current().nextDouble() < packetLossProbability) {
+						droppedResponseCounter.incrementAndGet();
+						return;
+					}
+					try {
+						socket.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+					} catch (IOException exc) {}
+				});
+			} catch (SocketException exc) {
+				return;
+			} catch (Throwable exc) {}
+		}
+	}
+
+	private void acceptTCPConnections(ServerSocket serverSocket, ExecutorService executor) {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				executor.execute(() -> serveTCPConnection(socket));
+			} catch (SocketException exc) {
+				return;
+			} catch (Throwable exc) {}
+		}
+	}
+
+	private void serveTCPConnection(Socket socket) {
+		try (Socket connection = socket;
+			DataInputStream input = new DataInputStream(connection.getInputStream());
+			DataOutputStream output = new DataOutputStream(connection.getOutputStream())
+		) {
+			while (true) {
+				byte[] query = new byte[input.readUnsignedShort()];
+				input.readFully(query);
+				tCPQueryCounter.incrementAndGet();
+				byte[] response = respond(query, false);
+				if (response == null) {
+					return;
+				}
+				output.writeShort(response.length);
+				output.write(response);
+				output.flush();
+			}
+		} catch (EOFException exc) {
+
+		} catch (IOException exc) {
+
+		}
+	}
+
+	byte[] respond(byte[] query, boolean overUDP) {
+		if (query.length < 12 || (query[2] & 0x80) != 0) {
+			return null;
+		}
+		long latency = this.latency;
+		if (latency > 0) {
+			try {
+				Thread.sleep(latency);
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+		int position = 12;
+		StringBuilder hostName = new StringBuilder();
+		int labelLength;
+		while (position < query.length && (labelLength = query[position++] & 0xFF) > 0) {
+			if (position + labelLength > query.length) {
+				return null;
+			}
+			if (hostName.length() > 0) {
+				hostName.append('.');
+			}
+			hostName.append(new String(query, position, labelLength, StandardCharsets.UTF_8));
+			position += labelLength;
+		}
+		if (position + 4 > query.length) {
+			return null;
+		}
+		int recordType = ((query[position] & 0xFF) << 8) | (query[position + 1] & 0xFF);
+		int questionEnd = position + 4;
+		List<byte[]> recordsData = new ArrayList<>();
+		boolean nameExists = findRecords(normalize(hostName.toString()), recordType, recordsData);
+		try (ByteArrayOutputStream responseContentStream = new ByteArrayOutputStream();
+			DataOutputStream responseWrapper = new DataOutputStream(responseContentStream)
+		) {
+			int flags = 0x8000 | 0x0400 | (query[2] & 0x01) << 8 | 0x0080;
+			int failureResponseCode = this.failureResponseCode;
+			if (failureResponseCode > 0) {
+				recordsData.clear();
+				flags |= failureResponseCode;
+			} else if (!nameExists) {
+				flags |= RESPONSE_CODE_NAME_ERROR;
+			}
+			int answerSize = 0;
+			for (byte[] recordData : recordsData) {
+				answerSize += 12 + recordData.length;
+			}
+			boolean truncated = overUDP && (truncateResponses || questionEnd + answerSize > MAX_UDP_MESSAGE_SIZE);
+			if (truncated) {
+				flags |= 0x0200;
+			}
+			responseWrapper.write(query, 0, 2);
+			responseWrapper.writeShort(flags);
+			responseWrapper.writeShort(1);
+			responseWrapper.writeShort(truncated ? 0 : recordsData.size());
+			responseWrapper.writeShort(0);
+			responseWrapper.writeShort(0);
+			responseWrapper.write(query, 12, questionEnd - 12);
+			if (!truncated) {
+				for (byte[] recordData : recordsData) {
+					responseWrapper.writeShort(0xC00C);
+					responseWrapper.writeShort(recordType);
+					responseWrapper.writeShort(1);
+					responseWrapper.writeInt(timeToLive);
+					responseWrapper.writeShort(recordData.length);
+					responseWrapper.write(recordData);
+				}
+			}
+			responseWrapper.flush();
+			return responseContentStream.toByteArray();
+		} catch (IOException exc) {
+			return Driver.throwException(exc);
+		}
+	}
+
+	private boolean findRecords(String hostName, int recordType, List<byte[]> recordsData) {
+		if (recordType == RECORD_TYPE_SRV) {
+			List<byte[]> records = services.get(hostName);
+			if (records != null) {
+				recordsData.addAll(records);
+			}
+			return records != null || zone.containsKey(hostName);
+		}
+		if (recordType == RECORD_TYPE_PTR) {
+			byte[] address = reversedNameToAddress(hostName);
+			if (address == null) {
+				return false;
+			}
+			for (Map.Entry<String, List<byte[]>> addressesForHostName : zone.entrySet()) {
+				for (byte[] mappedAddress : addressesForHostName.getValue()) {
+					if (Arrays.equals(mappedAddress, address)) {
+						recordsData.add(toLabels(addressesForHostName.getKey()));
+						break;
+					}
+				}
+			}
+			return !recordsData.isEmpty();
+		}
+		List<byte[]> addresses = zone.get(hostName);
+		if (addresses == null) {
+			return false;
+		}
+		int addressLength = recordType == RECORD_TYPE_A ? 4 : recordType == RECORD_TYPE_AAAA ? 16 : -1;
+		for (byte[] address : addresses) {
+			if (address.length == addressLength) {
+				recordsData.add(address);
+			}
+		}
+		return true;
+	}
+
+	private byte[] reversedNameToAddress(String reversedName) {
+		try {
+			if (reversedName.endsWith(IPV4_DOMAIN)) {
+				String[] octets = reversedName.substring(0, reversedName.length() - IPV4_DOMAIN.length()).split("\\.");
+				if (octets.length != 4) {
+					return null;
+				}
+				byte[] address = new byte[4];
+				for (int i = 0; i < 4; i++) {
+					address[3 - i] = (byte)Integer.parseInt(octets[i]);
+				}
+				return address;
+			} else if (reversedName.endsWith(IPV6_DOMAIN)) {
+				String[] nibbles = reversedName.substring(0, reversedName.length() - IPV6_DOMAIN.length()).split("\\.");
+				if (nibbles.length != 32) {
+					return null;
+				}
+				byte[] address = new byte[16];
+				for (int i = 0; i < 32; i++) {
+					int nibble = Integer.parseInt(nibbles[i], 16);
+					int index = 15 - i / 2;
+					address[index] |= (i % 2 == 0) ? nibble : nibble << 4;
+				}
+				return address;
+			}
+		} catch (NumberFormatException exc) {}
+		return null;
+	}
+
+	private byte[] toLabels(String hostName) {
+		ByteArrayOutputStream labels = new ByteArrayOutputStream();
+		for (String label : hostName.split("\\.")) {
+			byte[] labelBytes = label.getBytes(StandardCharsets.UTF_8);
+			labels.write(labelBytes.length);
+			labels.write(labelBytes, 0, labelBytes.length);
+		}
+		labels.write(0);
+		return labels.toByteArray();
+	}
+
+	private String normalize(String hostName) {
+		hostName = hostName.toLowerCase();
+		return hostName.endsWith(".") ? hostName.substring(0, hostName.length() - 1) : hostName;
+	}
+
+}
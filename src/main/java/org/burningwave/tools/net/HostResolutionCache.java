@@ -0,0 +1,90 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import java.net.InetAddress;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface HostResolutionCache {
+
+	public Entry get(String hostName);
+
+	//An empty addresses collection stores a negative answer
+	public void put(String hostName, Collection<InetAddress> addresses, long timeToLive);
+
+	public void remove(Collection<String> hostNames);
+
+	public void clear();
+
+	public long size();
+
+	public void forEach(Consumer<Entry> action);
+
+	//The time to live, in milliseconds, used when no resolver specifies it
+	public long getDefaultTimeToLive();
+
+	//The time to live, in milliseconds, of the negative answers: 0 disables the negative caching
+	public long getNegativeTimeToLive();
+
+	public static class Entry {
+		private final String hostName;
+		private final List<InetAddress> addresses;
+		private final long expirationTime;
+
+		public Entry(String hostName, List<InetAddress> addresses, long expirationTime) {
+			this.hostName = hostName;
+			this.addresses = Collections.unmodifiableList(addresses);
+			this.expirationTime = expirationTime;
+		}
+
+		public String getHostName() {
+			return hostName;
+		}
+
+		public List<InetAddress> getAddresses() {
+			return addresses;
+		}
+
+		public boolean isNegative() {
+			return addresses.isEmpty();
+		}
+
+		public long getExpirationTime() {
+			return expirationTime;
+		}
+
+		public boolean isExpired(long currentTime) {
+			return currentTime >= expirationTime;
+		}
+	}
+
+}
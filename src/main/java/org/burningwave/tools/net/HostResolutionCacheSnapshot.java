@@ -0,0 +1,132 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+//Stores the valid entries of a cache in a compact binary file. The layout is: magic number, version,
+//storing time and entry count followed, for each entry, by the host name, the remaining time to live in
+//milliseconds and the addresses as length prefixed byte arrays (no addresses for the negative entries)
+public class HostResolutionCacheSnapshot {
+	private static final int MAGIC_NUMBER = 0x42574843;
+	private static final byte VERSION = 1;
+
+	private final Path file;
+
+	public HostResolutionCacheSnapshot(Path file) {
+		if (file == null) {
+			throw new IllegalArgumentException("File is required");
+		}
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	//The file is replaced atomically so that a crash during the storing never leaves a truncated snapshot
+	public int store(HostResolutionCache cache) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path temporaryFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try {
+			List<HostResolutionCache.Entry> entries = new ArrayList<>();
+			cache.forEach(entries::add);
+			long currentTime = System.currentTimeMillis();
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+				output.writeInt(MAGIC_NUMBER);
+				output.writeByte(VERSION);
+				output.writeLong(currentTime);
+				output.writeInt(entries.size());
+				for (HostResolutionCache.Entry entry : entries) {
+					output.writeUTF(entry.getHostName());
+					output.writeLong(Math.max(entry.getExpirationTime() - currentTime, 0));
+					output.writeShort(entry.getAddresses().size());
+					for (InetAddress address : entry.getAddresses()) {
+						byte[] rawAddress = address.getAddress();
+						output.writeByte(rawAddress.length);
+						output.write(rawAddress);
+					}
+				}
+			}
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return entries.size();
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	//Puts in the cache the entries whose time to live has not elapsed since the storing and
+	//returns their host names: a missing file is not an error
+	public Collection<String> load(HostResolutionCache cache) throws IOException {
+		Collection<String> hostNames = new ArrayList<>();
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			int magicNumber = input.readInt();
+			byte version = input.readByte();
+			if (magicNumber != MAGIC_NUMBER || version != VERSION) {
+				throw new IOException(Strings.compile("{} is not a valid cache snapshot", file));
+			}
+			long elapsedTime = Math.max(System.currentTimeMillis() - input.readLong(), 0);
+			for (int entryCount = input.readInt(); entryCount > 0; --entryCount) {
+				String hostName = input.readUTF();
+				long timeToLive = input.readLong() - elapsedTime;
+				List<InetAddress> addresses = new ArrayList<>();
+				for (int addressCount = input.readUnsignedShort(); addressCount > 0; --addressCount) {
+					byte[] rawAddress = new byte[input.readUnsignedByte()];
+					input.readFully(rawAddress);
+					addresses.add(InetAddress.getByAddress(hostName, rawAddress));
+				}
+				if (timeToLive > 0) {
+					cache.put(hostName, addresses, timeToLive);
+					hostNames.add(hostName);
+				}
+			}
+		} catch (NoSuchFileException exc) {
+
+		}
+		return hostNames;
+	}
+
+}
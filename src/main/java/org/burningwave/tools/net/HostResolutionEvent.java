@@ -0,0 +1,152 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class HostResolutionEvent {
+
+	public static enum Type {
+		FORWARD_LOOKUP,
+		REVERSE_LOOKUP
+	}
+
+	//UNRESOLVED means that an UnknownHostException has been thrown
+	public static enum Outcome {
+		RESOLVED,
+		UNRESOLVED,
+		FAILED
+	}
+
+	private final Type type;
+	private final Object[] methodArguments;
+	private final List<ResolverOutcome> resolverOutcomes;
+	private Outcome outcome;
+	private long elapsedNanos;
+
+	HostResolutionEvent(Type type, Object[] methodArguments) {
+		this.type = type;
+		this.methodArguments = methodArguments;
+		this.resolverOutcomes = new ArrayList<>();
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public String getHostName() {
+		return type == Type.FORWARD_LOOKUP ?
+			(String)methodArguments[0] :
+			null;
+	}
+
+	public byte[] getAddress() {
+		return type == Type.REVERSE_LOOKUP ?
+			(byte[])methodArguments[0] :
+			null;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public List<ResolverOutcome> getResolverOutcomes() {
+		return Collections.unmodifiableList(resolverOutcomes);
+	}
+
+	public Collection<HostResolver> getAnsweringResolvers() {
+		Collection<HostResolver> answeringResolvers = new ArrayList<>();
+		for (ResolverOutcome resolverOutcome : resolverOutcomes) {
+			if (resolverOutcome.outcome == Outcome.RESOLVED) {
+				answeringResolvers.add(resolverOutcome.resolver);
+			}
+		}
+		return answeringResolvers;
+	}
+
+	//The resolvers can be called in parallel
+	synchronized void add(HostResolver resolver, Outcome outcome, long elapsedNanos, Throwable exception) {
+		resolverOutcomes.add(new ResolverOutcome(resolver, outcome, elapsedNanos, exception));
+	}
+
+	HostResolutionEvent complete(Outcome outcome, long elapsedNanos) {
+		this.outcome = outcome;
+		this.elapsedNanos = elapsedNanos;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return type + " of " + (type == Type.FORWARD_LOOKUP ? getHostName() : IPAddressUtil.INSTANCE.numericToTextFormat(getAddress())) +
+			": " + outcome + " in " + elapsedNanos + " ns " + resolverOutcomes;
+	}
+
+	public static class ResolverOutcome {
+		private final HostResolver resolver;
+		private final Outcome outcome;
+		private final long elapsedNanos;
+		private final Throwable exception;
+
+		ResolverOutcome(HostResolver resolver, Outcome outcome, long elapsedNanos, Throwable exception) {
+			this.resolver = resolver;
+			this.outcome = outcome;
+			this.elapsedNanos = elapsedNanos;
+			this.exception = exception;
+		}
+
+		public HostResolver getResolver() {
+			return resolver;
+		}
+
+		public Outcome getOutcome() {
+			return outcome;
+		}
+
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		public Throwable getException() {
+			return exception;
+		}
+
+		@Override
+		public String toString() {
+			return HostResolutionMetrics.nameOf(resolver) + ": " + outcome + " in " + elapsedNanos + " ns";
+		}
+	}
+
+}
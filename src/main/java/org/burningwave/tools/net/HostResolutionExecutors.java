@@ -0,0 +1,69 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Methods;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Supplies the executors for the blocking resolutions: on JDK 21 and later (on JDK 19 and 20 only with the preview
+//features enabled) every task runs on its own virtual thread, otherwise the tasks run on a cached pool of daemon threads
+public class HostResolutionExecutors {
+	public static final boolean VIRTUAL_THREADS_SUPPORTED;
+
+	static {
+		boolean virtualThreadsSupported;
+		try {
+			//On JDK 19 and 20 the method is a preview API that fails unless the preview features are enabled:
+			//an executor is created to verify that the virtual threads are usable
+			((ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)).shutdown();
+			virtualThreadsSupported = true;
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException exc) {
+			//The InvocationTargetException wraps the UnsupportedOperationException of the preview API
+			virtualThreadsSupported = false;
+		}
+		VIRTUAL_THREADS_SUPPORTED = virtualThreadsSupported;
+	}
+
+	private HostResolutionExecutors() {}
+
+	public static ExecutorService newExecutor() {
+		if (VIRTUAL_THREADS_SUPPORTED) {
+			return Methods.invokeStatic(Executors.class, "newVirtualThreadPerTaskExecutor");
+		}
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, HostResolutionExecutors.class.getSimpleName() + " worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+}
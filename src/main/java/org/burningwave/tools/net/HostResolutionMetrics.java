@@ -0,0 +1,444 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class HostResolutionMetrics implements HostResolutionMetricsMXBean {
+	public static final String OBJECT_NAME;
+
+	static {
+		OBJECT_NAME = "org.burningwave.tools.net:type=HostResolutionMetrics";
+	}
+
+	final Operation forwardLookups;
+	final Operation reverseLookups;
+	private final Map<ResolverKey, ResolverMetrics> resolverMetrics;
+
+	public HostResolutionMetrics() {
+		forwardLookups = new Operation();
+		reverseLookups = new Operation();
+		//The entries of the resolvers that are no longer installed (or of the closed scopes) are removed by the interceptor
+		resolverMetrics = new ConcurrentHashMap<>();
+	}
+
+	ResolverMetrics forResolver(HostResolver resolver) {
+		ResolverKey key = new ResolverKey(resolver);
+		ResolverMetrics metrics = resolverMetrics.get(key);
+		if (metrics == null) {
+			metrics = resolverMetrics.computeIfAbsent(key, ResolverMetrics::new);
+		}
+		return metrics;
+	}
+
+	void remove(Collection<HostResolver> resolvers) {
+		for (HostResolver resolver : resolvers) {
+			resolverMetrics.remove(new ResolverKey(resolver));
+		}
+	}
+
+	Operation operation(HostResolutionEvent.Type type) {
+		return type == HostResolutionEvent.Type.FORWARD_LOOKUP ? forwardLookups : reverseLookups;
+	}
+
+	public Snapshot snapshot() {
+		return new Snapshot(getForwardLookups(), getReverseLookups(), getResolvers());
+	}
+
+	@Override
+	public OperationSnapshot getForwardLookups() {
+		return forwardLookups.snapshot();
+	}
+
+	@Override
+	public OperationSnapshot getReverseLookups() {
+		return reverseLookups.snapshot();
+	}
+
+	@Override
+	public List<ResolverSnapshot> getResolvers() {
+		List<ResolverSnapshot> resolverSnapshots = new ArrayList<>();
+		for (ResolverMetrics metrics : resolverMetrics.values()) {
+			resolverSnapshots.add(metrics.snapshot());
+		}
+		return resolverSnapshots;
+	}
+
+	@Override
+	public void reset() {
+		forwardLookups.reset();
+		reverseLookups.reset();
+		resolverMetrics.clear();
+	}
+
+	HostResolutionMetrics register() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+			mBeanServer.registerMBean(this, objectName);
+		} catch (Throwable exc) {
+			Driver.throwException(exc);
+		}
+		return this;
+	}
+
+	HostResolutionMetrics unregister() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+		} catch (Throwable exc) {
+			Driver.throwException(exc);
+		}
+		return this;
+	}
+
+	static String nameOf(HostResolver resolver) {
+		return resolver.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(resolver));
+	}
+
+	//The resolvers are compared by identity whatever their equals method does
+	static class ResolverKey {
+		final HostResolver resolver;
+
+		ResolverKey(HostResolver resolver) {
+			this.resolver = resolver;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(resolver);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof ResolverKey && ((ResolverKey)object).resolver == resolver;
+		}
+	}
+
+	static class ResolverMetrics {
+		final HostResolver resolver;
+		final String name;
+		final Operation forwardLookups;
+		final Operation reverseLookups;
+
+		ResolverMetrics(ResolverKey key) {
+			this.resolver = key.resolver;
+			this.name = nameOf(resolver);
+			this.forwardLookups = new Operation();
+			this.reverseLookups = new Operation();
+		}
+
+		Operation operation(HostResolutionEvent.Type type) {
+			return type == HostResolutionEvent.Type.FORWARD_LOOKUP ? forwardLookups : reverseLookups;
+		}
+
+		ResolverSnapshot snapshot() {
+			return new ResolverSnapshot(resolver, name, forwardLookups.snapshot(), reverseLookups.snapshot());
+		}
+	}
+
+	static class Operation {
+		final LongAdder hits;
+		final LongAdder misses;
+		final LongAdder failures;
+		final LatencyHistogram latency;
+
+		Operation() {
+			hits = new LongAdder();
+			misses = new LongAdder();
+			failures = new LongAdder();
+			latency = new LatencyHistogram();
+		}
+
+		void record(HostResolutionEvent.Outcome outcome, long elapsedNanos) {
+			if (outcome == HostResolutionEvent.Outcome.RESOLVED) {
+				hits.increment();
+			} else if (outcome == HostResolutionEvent.Outcome.UNRESOLVED) {
+				misses.increment();
+			} else {
+				failures.increment();
+			}
+			latency.record(elapsedNanos);
+		}
+
+		OperationSnapshot snapshot() {
+			long hits = this.hits.sum();
+			long misses = this.misses.sum();
+			long failures = this.failures.sum();
+			return new OperationSnapshot(hits + misses + failures, hits, misses, failures, latency.snapshot());
+		}
+
+		void reset() {
+			hits.reset();
+			misses.reset();
+			failures.reset();
+			latency.reset();
+		}
+	}
+
+	//Log-linear buckets in the style of HdrHistogram: 8 sub-buckets for each power of two, so
+	//the reported values have a relative error of at most 12.5%. Each bucket is a LongAdder so that the
+	//threads recording the same latency range do not contend on a single cell
+	static class LatencyHistogram {
+		private static final int SUB_BUCKET_BITS = 3;
+		private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+		private static final int MAX_EXPONENT = 42;
+		private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+		private final LongAdder[] buckets;
+		private final LongAdder sum;
+		private final LongAccumulator max;
+
+		LatencyHistogram() {
+			buckets = new LongAdder[BUCKET_COUNT];
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				buckets[i] = new LongAdder();
+			}
+			sum = new LongAdder();
+			max = new LongAccumulator(Math::max, 0);
+		}
+
+		void record(long value) {
+			if (value < 0) {
+				value = 0;
+			}
+			buckets[indexOf(value)].increment();
+			sum.add(value);
+			max.accumulate(value);
+		}
+
+		static int indexOf(long value) {
+			if (value < SUB_BUCKET_COUNT) {
+				return (int)value;
+			}
+			int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+			int subBucket = (int)(Math.min(value >>> (exponent - SUB_BUCKET_BITS), (SUB_BUCKET_COUNT << 1) - 1) & (SUB_BUCKET_COUNT - 1));
+			return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+		}
+
+		static long highestValueOf(int index) {
+			if (index < SUB_BUCKET_COUNT) {
+				return index;
+			}
+			int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+			long subBucket = index % SUB_BUCKET_COUNT;
+			return ((SUB_BUCKET_COUNT + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+		}
+
+		LatencySnapshot snapshot() {
+			long[] counts = new long[BUCKET_COUNT];
+			long count = 0;
+			for (int i = 0; i < counts.length; i++) {
+				count += (counts[i] = buckets[i].sum());
+			}
+			return new LatencySnapshot(counts, count, sum.sum(), max.get());
+		}
+
+		void reset() {
+			for (LongAdder bucket : buckets) {
+				bucket.reset();
+			}
+			sum.reset();
+			max.reset();
+		}
+	}
+
+	public static class Snapshot {
+		private final OperationSnapshot forwardLookups;
+		private final OperationSnapshot reverseLookups;
+		private final List<ResolverSnapshot> resolvers;
+
+		Snapshot(OperationSnapshot forwardLookups, OperationSnapshot reverseLookups, List<ResolverSnapshot> resolvers) {
+			this.forwardLookups = forwardLookups;
+			this.reverseLookups = reverseLookups;
+			this.resolvers = resolvers;
+		}
+
+		public OperationSnapshot getForwardLookups() {
+			return forwardLookups;
+		}
+
+		public OperationSnapshot getReverseLookups() {
+			return reverseLookups;
+		}
+
+		public List<ResolverSnapshot> getResolvers() {
+			return resolvers;
+		}
+
+		public ResolverSnapshot getResolver(HostResolver resolver) {
+			for (ResolverSnapshot resolverSnapshot : resolvers) {
+				if (resolverSnapshot.resolver == resolver) {
+					return resolverSnapshot;
+				}
+			}
+			return null;
+		}
+	}
+
+	public static class ResolverSnapshot {
+		private final HostResolver resolver;
+		private final String name;
+		private final OperationSnapshot forwardLookups;
+		private final OperationSnapshot reverseLookups;
+
+		ResolverSnapshot(HostResolver resolver, String name, OperationSnapshot forwardLookups, OperationSnapshot reverseLookups) {
+			this.resolver = resolver;
+			this.name = name;
+			this.forwardLookups = forwardLookups;
+			this.reverseLookups = reverseLookups;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public OperationSnapshot getForwardLookups() {
+			return forwardLookups;
+		}
+
+		public OperationSnapshot getReverseLookups() {
+			return reverseLookups;
+		}
+	}
+
+	//The misses are the calls that ended with an UnknownHostException
+	public static class OperationSnapshot {
+		private final long calls;
+		private final long hits;
+		private final long misses;
+		private final long failures;
+		private final LatencySnapshot latency;
+
+		OperationSnapshot(long calls, long hits, long misses, long failures, LatencySnapshot latency) {
+			this.calls = calls;
+			this.hits = hits;
+			this.misses = misses;
+			this.failures = failures;
+			this.latency = latency;
+		}
+
+		public long getCalls() {
+			return calls;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public long getFailures() {
+			return failures;
+		}
+
+		public LatencySnapshot getLatency() {
+			return latency;
+		}
+	}
+
+	//All the values are expressed in nanoseconds
+	public static class LatencySnapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		LatencySnapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getMean() {
+			return count > 0 ? sum / count : 0;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public long getP50() {
+			return getValueAtPercentile(50);
+		}
+
+		public long getP90() {
+			return getValueAtPercentile(90);
+		}
+
+		public long getP99() {
+			return getValueAtPercentile(99);
+		}
+
+		public long getP999() {
+			return getValueAtPercentile(99.9);
+		}
+
+		public long getValueAtPercentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long countAtPercentile = Math.max(1, (long)Math.ceil((percentile / 100) * count));
+			long cumulativeCount = 0;
+			for (int i = 0; i < counts.length; i++) {
+				cumulativeCount += counts[i];
+				if (cumulativeCount >= countAtPercentile) {
+					return Math.min(LatencyHistogram.highestValueOf(i), max);
+				}
+			}
+			return max;
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+public class HostResolutionRequest extends AbstractMap<String, Object> {
+	public static final String METHOD_ARGUMENTS_KEY;
+	public static final String NAME_SERVICES_KEY;
+	public static final String TIME_TO_LIVE_KEY;
+
+	static {
+		METHOD_ARGUMENTS_KEY = "methodArguments";
+		NAME_SERVICES_KEY = "nameServices";
+		TIME_TO_LIVE_KEY = "timeToLive";
+	}
+
+	Object[] methodArguments;
+	List<Object> nameServices;
+	private Map<String, Object> otherArguments;
+
+	public HostResolutionRequest(Object[] methodArguments) {
+		this(methodArguments, null);
+	}
+
+	public HostResolutionRequest(Object[] methodArguments, List<Object> nameServices) {
+		this.methodArguments = methodArguments;
+		this.nameServices = nameServices;
+	}
+
+	public Object[] getMethodArguments() {
+		return methodArguments;
+	}
+
+	public List<Object> getNameServices() {
+		return nameServices;
+	}
+
+	public String getHostName() {
+		return (String)methodArguments[0];
+	}
+
+	public byte[] getAddress() {
+		return (byte[])methodArguments[0];
+	}
+
+	//The lowest time to live, in milliseconds, specified by the resolvers or -1 if none was specified
+	public long getTimeToLive() {
+		Object timeToLive = get(TIME_TO_LIVE_KEY);
+		return timeToLive != null ? (Long)timeToLive : -1;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (METHOD_ARGUMENTS_KEY.equals(key)) {
+			return methodArguments;
+		} else if (NAME_SERVICES_KEY.equals(key)) {
+			return nameServices;
+		}
+		return otherArguments != null ? otherArguments.get(key) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (METHOD_ARGUMENTS_KEY.equals(key)) {
+			return methodArguments != null;
+		} else if (NAME_SERVICES_KEY.equals(key)) {
+			return nameServices != null;
+		}
+		return otherArguments != null && otherArguments.containsKey(key);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object put(String key, Object value) {
+		Object oldValue;
+		if (METHOD_ARGUMENTS_KEY.equals(key)) {
+			oldValue = methodArguments;
+			methodArguments = (Object[])value;
+		} else if (NAME_SERVICES_KEY.equals(key)) {
+			oldValue = nameServices;
+			nameServices = (List<Object>)value;
+		} else {
+			if (otherArguments == null) {
+				otherArguments = new LinkedHashMap<>();
+			}
+			oldValue = otherArguments.put(key, value);
+		}
+		return oldValue;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (METHOD_ARGUMENTS_KEY.equals(key) || NAME_SERVICES_KEY.equals(key)) {
+			return put((String)key, null);
+		}
+		return otherArguments != null ? otherArguments.remove(key) : null;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new Iterator<Entry<String, Object>>() {
+					private int index = -1;
+					private Iterator<Entry<String, Object>> otherArgumentsIterator;
+					private Entry<String, Object> next = computeNext();
+
+					@Override
+					public boolean hasNext() {
+						return next != null;
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						if (next == null) {
+							throw new NoSuchElementException();
+						}
+						Entry<String, Object> current = next;
+						next = computeNext();
+						return current;
+					}
+
+					private Entry<String, Object> computeNext() {
+						while (++index < 2) {
+							String key = index == 0 ? METHOD_ARGUMENTS_KEY : NAME_SERVICES_KEY;
+							Object value = HostResolutionRequest.this.get(key);
+							if (value != null) {
+								return new SimpleImmutableEntry<>(key, value);
+							}
+						}
+						if (otherArgumentsIterator == null) {
+							if (otherArguments == null) {
+								return null;
+							}
+							otherArgumentsIterator = otherArguments.entrySet().iterator();
+						}
+						return otherArgumentsIterator.hasNext() ? otherArgumentsIterator.next() : null;
+					}
+
+				};
+			}
+
+			@Override
+			public int size() {
+				return (methodArguments != null ? 1 : 0) +
+					(nameServices != null ? 1 : 0) +
+					(otherArguments != null ? otherArguments.size() : 0);
+			}
+
+		};
+	}
+
+}
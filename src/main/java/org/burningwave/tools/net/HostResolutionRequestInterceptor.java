@@ -28,49 +28,68 @@
  */
 package org.burningwave.tools.net;
 
+import static org.burningwave.core.assembler.StaticComponentContainer.BackgroundExecutor;
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
 import static org.burningwave.core.assembler.StaticComponentContainer.Fields;
-import static org.burningwave.core.assembler.StaticComponentContainer.Methods;
+import static org.burningwave.core.assembler.StaticComponentContainer.ManagedLoggerRepository;
 import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
 
-import java.lang.reflect.Field;
+import java.io.IOException;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
-import org.burningwave.core.classes.FieldCriteria;
+import org.burningwave.core.function.ThrowingFunction;
 
 public class HostResolutionRequestInterceptor {
 	public static final HostResolutionRequestInterceptor INSTANCE;
 	private static final Function<HostResolutionRequestInterceptor, Object> proxySupplier;
 	private static final Function<Collection<InetAddress>, Object> getAllAddressesForHostNameResultConverter;
-	private static final Object cacheOne;
-	private static final Object cacheTwo;
-
-	Collection<HostResolver> resolvers;
+	private static final long MAXIMUM_READINESS_TIMEOUT = 60000;
 
+	volatile Collection<HostResolver> resolvers;
+	private volatile Probe probe;
+	private volatile HostResolutionMetrics metrics;
+	private volatile HostResolutionListener[] listeners;
+	private volatile HostResolutionCache cache;
+	//Incremented on every invalidation so that the answers computed before it are not cached
+	private volatile int cacheGeneration;
+	private volatile HostResolutionCacheSnapshot cacheSnapshot;
+	private ScheduledExecutorService cacheSnapshotStorer;
+	private Thread cacheSnapshotShutdownHook;
+	private volatile ExecutorService parallelResolutionExecutor;
+	private boolean parallelResolutionExecutorOwned;
+	private volatile AddressOrderingPolicy addressOrderingPolicy;
+	private final ThreadLocal<HostResolutionScope> currentScope;
+	//Read before the thread local so that no lookup pays for it while there are no scopes
+	private volatile int openScopeCount;
 
 	static {
 		proxySupplier = Collection.class.isAssignableFrom(DefaultHostResolver.nameServiceFieldClass) ?
 			HostResolutionRequestInterceptor::buildProxies:
 			HostResolutionRequestInterceptor::buildProxy;
-		Field cacheOneField = Fields.findOne(FieldCriteria.withoutConsideringParentClasses().name(fieldName -> {
-			return fieldName.equals("cache") || fieldName.equals("addressCache");
-		}), DefaultHostResolver.inetAddressClass);
-		if (cacheOneField.getName().equals("addressCache")) {
-			cacheOne = Fields.getDirect(Fields.getStaticDirect(cacheOneField), "cache");
-			cacheTwo = Fields.getDirect(Fields.getStaticDirect(DefaultHostResolver.inetAddressClass, "negativeCache"), "cache");
-		} else {
-			cacheOne = Fields.getStaticDirect(DefaultHostResolver.inetAddressClass, "cache");
-			cacheTwo = Fields.getStaticDirect(DefaultHostResolver.inetAddressClass, "expirySet");
-		}
 		getAllAddressesForHostNameResultConverter = DefaultHostResolver.getAllAddressesForHostNameMethod.getReturnType().equals(InetAddress[].class) ?
 			addresses ->
 				addresses.toArray(new InetAddress[addresses.size()]) :
@@ -79,33 +98,165 @@ public class HostResolutionRequestInterceptor {
 		INSTANCE = new HostResolutionRequestInterceptor();
 	}
 
-	private HostResolutionRequestInterceptor() {}
+	private HostResolutionRequestInterceptor() {
+		listeners = new HostResolutionListener[0];
+		currentScope = new ThreadLocal<>();
+	}
+
+	public HostResolutionScope openScope(HostResolver... resolvers) {
+		return openScope(null, resolvers);
+	}
+
+	//Binds the resolvers, and the cache if not null, to the current thread until the returned scope is closed.
+	//The JDK cache is bypassed only by the threads bound to a scope: they neither read it nor store in it, so
+	//their answers are cached only by the cache of the scope and never reach the other threads
+	public HostResolutionScope openScope(HostResolutionCache cache, HostResolver... resolvers) {
+		Collection<HostResolver> resolverList = checkResolvers(resolvers);
+		InetAddressCache.enableScopeAwareness();
+		synchronized (currentScope) {
+			++openScopeCount;
+		}
+		return new HostResolutionScope(this, resolverList, cache).open();
+	}
+
+	public HostResolutionScope getCurrentScope() {
+		return openScopeCount > 0 ? currentScope.get() : null;
+	}
+
+	HostResolutionScope bindScope(HostResolutionScope scope) {
+		HostResolutionScope previous = currentScope.get();
+		if (scope != null) {
+			currentScope.set(scope);
+		} else {
+			currentScope.remove();
+		}
+		return previous;
+	}
+
+	void onScopeClosed(HostResolutionScope scope) {
+		synchronized (currentScope) {
+			--openScopeCount;
+		}
+		discardMetrics(scope.resolvers);
+	}
 
 	public HostResolutionRequestInterceptor install(HostResolver... resolvers) {
 		return install(-1, 250, resolvers);
 	}
 
+	//The readiness is verified by resolving a single probe host name that is answered by the installed proxy:
+	//the sleeping time is the maximum interval between two probes and, when the proxy answers the first probe,
+	//no waiting at all takes place. A negative timeout is capped to one minute and, if the probes do not reach
+	//the proxy before the timeout expires or the waiting thread is interrupted, an IllegalStateException is thrown.
+	//The JDK cache is not flushed: its entries expire according to the JDK policy and the entries to be replaced
+	//by the new resolvers can be evicted through the clearCache methods
 	public HostResolutionRequestInterceptor install(long timeout, long sleepingTime, HostResolver... resolvers) {
-		this.resolvers = checkResolvers(resolvers);
-		synchronized (DefaultHostResolver.nameServices) {
-	        Fields.setStaticDirect(
-	    		DefaultHostResolver.nameServiceField,
-	    		proxySupplier.apply(this)
-			);
+		Collection<HostResolver> resolverList = checkResolvers(resolvers);
+		synchronized (this) {
+			Collection<HostResolver> previousResolvers = this.resolvers;
+			this.resolvers = resolverList;
+			if (previousResolvers != null) {
+				discardMetrics(previousResolvers);
+			}
+			synchronized (DefaultHostResolver.nameServices) {
+				if (DefaultHostResolver.bindableNameService != null) {
+					DefaultHostResolver.bindableNameService.bind(
+						buildGetAllAddressesForHostNameHandler(),
+						buildGetAllHostNamesForHostAddressHandler()
+					);
+				} else {
+			        Fields.setStaticDirect(
+			    		DefaultHostResolver.nameServiceField,
+			    		proxySupplier.apply(this)
+					);
+				}
+			}
+			loadCacheSnapshot();
+			awaitReadiness(timeout, sleepingTime);
 		}
-        this.resolvers.stream().filter(MappedHostResolver.class::isInstance).findFirst()
-        .map(MappedHostResolver.class::cast).ifPresent(hostResolver -> {
-    		Long startTime = System.currentTimeMillis();
-    		Long expirationTime = startTime + timeout;
-    		while (!hostResolver.isReady(this) && (timeout < 0 || expirationTime > System.currentTimeMillis())) {
-    			try {
-    				Thread.sleep(sleepingTime);
-    			} catch (InterruptedException exc) {}
-    		}
-        });
         return this;
     }
 
+	//The host names are resolved after the installation as described by the warmUp method
+	public HostResolutionRequestInterceptor install(Collection<String> hostNamesToWarmUp, HostResolver... resolvers) {
+		return install(-1, 250, hostNamesToWarmUp, resolvers);
+	}
+
+	public HostResolutionRequestInterceptor install(
+		long timeout,
+		long sleepingTime,
+		Collection<String> hostNamesToWarmUp,
+		HostResolver... resolvers
+	) {
+		return install(timeout, sleepingTime, resolvers).warmUp(hostNamesToWarmUp, timeout);
+	}
+
+	//Resolves the host names in parallel through the JDK, so that both its cache and the cache of the interceptor
+	//are filled, and waits for the resolutions at most the timeout in milliseconds (a negative one means no limit)
+	public HostResolutionRequestInterceptor warmUp(Collection<String> hostNames, long timeout) {
+		if (hostNames == null || hostNames.isEmpty()) {
+			return this;
+		}
+		ExecutorService executor = HostResolutionExecutors.newExecutor();
+		try {
+			for (String hostName : hostNames) {
+				executor.execute(() -> {
+					try {
+						InetAddress.getAllByName(hostName);
+					} catch (UnknownHostException exc) {
+						//The negative answer is cached as well
+					} catch (Throwable exc) {
+						ManagedLoggerRepository.logError(getClass()::getName, "Exception occurred while warming up {}", exc, hostName);
+					}
+				});
+			}
+			executor.shutdown();
+			if (!executor.awaitTermination(timeout < 0 ? Long.MAX_VALUE : timeout, TimeUnit.MILLISECONDS)) {
+				ManagedLoggerRepository.logWarn(getClass()::getName, "Warm up not completed in {} milliseconds", timeout);
+			}
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+		return this;
+	}
+
+	private void awaitReadiness(long timeout, long sleepingTime) {
+		long maximumWaitingTime = timeout < 0 ? MAXIMUM_READINESS_TIMEOUT : timeout;
+		long expirationTime = System.currentTimeMillis() + maximumWaitingTime;
+		try {
+			while (true) {
+				Probe probe = this.probe = new Probe();
+				try {
+					InetAddress.getAllByName(probe.hostName);
+				} catch (UnknownHostException exc) {
+
+				} finally {
+					//Every probe host name is resolved once: its answer would stay in the JDK cache until it expires
+					clearJDKCache(Collections.singletonList(probe.hostName));
+				}
+				long waitingTime = Math.min(sleepingTime, expirationTime - System.currentTimeMillis());
+				if (probe.answered.await(Math.max(waitingTime, 0), TimeUnit.MILLISECONDS)) {
+					return;
+				}
+				if (expirationTime <= System.currentTimeMillis()) {
+					throw new IllegalStateException(
+						Strings.compile(
+							"The lookups have not reached the installed resolvers in {} milliseconds: the name service could have been replaced by another component",
+							maximumWaitingTime
+						)
+					);
+				}
+			}
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the readiness of the installed resolvers", exc);
+		} finally {
+			this.probe = null;
+		}
+	}
+
 	public HostResolutionRequestInterceptor uninstall() {
         Object nameServices;
 		if (Collection.class.isAssignableFrom(DefaultHostResolver.nameServiceFieldClass)) {
@@ -114,17 +265,360 @@ public class HostResolutionRequestInterceptor {
         	nameServices = DefaultHostResolver.nameServices.iterator().next();
         }
 		synchronized (DefaultHostResolver.nameServices) {
-			Fields.setStaticDirect(DefaultHostResolver.nameServiceField, nameServices);
-			clearCache();
+			if (DefaultHostResolver.bindableNameService != null) {
+				//The JDK cache is not flushed: the entries to be resolved again by the builtin resolver can be
+				//evicted through the clearCache methods
+				DefaultHostResolver.bindableNameService.unbind();
+			} else {
+				Fields.setStaticDirect(DefaultHostResolver.nameServiceField, nameServices);
+				clearCache();
+			}
+		}
+		HostResolutionMetrics metrics = this.metrics;
+		Collection<HostResolver> resolvers = this.resolvers;
+		if (metrics != null && resolvers != null) {
+			metrics.remove(resolvers);
 		}
         return this;
 	}
 
+	public HostResolutionRequestInterceptor enableMetrics() {
+		synchronized (this) {
+			if (metrics == null) {
+				metrics = new HostResolutionMetrics().register();
+			}
+		}
+		return this;
+	}
+
+	public HostResolutionRequestInterceptor disableMetrics() {
+		synchronized (this) {
+			if (metrics != null) {
+				metrics.unregister();
+				metrics = null;
+			}
+		}
+		return this;
+	}
+
+	public HostResolutionMetrics getMetrics() {
+		return metrics;
+	}
+
+	//Removes the metrics of the given resolvers that are not part of the installed chain
+	private void discardMetrics(Collection<HostResolver> resolvers) {
+		HostResolutionMetrics metrics = this.metrics;
+		if (metrics == null) {
+			return;
+		}
+		Collection<HostResolver> installedResolvers = this.resolvers;
+		Collection<HostResolver> discardedResolvers = new ArrayList<>();
+		for (HostResolver resolver : resolvers) {
+			if (installedResolvers == null || installedResolvers.stream().noneMatch(installedResolver -> installedResolver == resolver)) {
+				discardedResolvers.add(resolver);
+			}
+		}
+		metrics.remove(discardedResolvers);
+	}
+
+	public HostResolutionRequestInterceptor enableCache(int maximumSize) {
+		return enableCache(new TinyLFUHostResolutionCache(maximumSize));
+	}
+
+	//The cache is consulted before the resolvers chain: the time to live of the answers is the lowest
+	//one specified by the answering resolvers or, if none was specified, the default one of the cache
+	public HostResolutionRequestInterceptor enableCache(HostResolutionCache cache) {
+		if (cache == null) {
+			throw new IllegalArgumentException("Cache is required");
+		}
+		synchronized (this) {
+			++cacheGeneration;
+			this.cache = cache;
+		}
+		return this;
+	}
+
+	public HostResolutionRequestInterceptor disableCache() {
+		synchronized (this) {
+			++cacheGeneration;
+			cache = null;
+		}
+		return this;
+	}
+
+	public HostResolutionCache getCache() {
+		return cache;
+	}
+
+	//The answers of the resolvers are always deduplicated by numeric address and, if a policy is set, ordered
+	//by it before being cached and returned: without a policy the order is the one of the resolvers
+	public HostResolutionRequestInterceptor setAddressOrderingPolicy(AddressOrderingPolicy addressOrderingPolicy) {
+		this.addressOrderingPolicy = addressOrderingPolicy;
+		return this;
+	}
+
+	public AddressOrderingPolicy getAddressOrderingPolicy() {
+		return addressOrderingPolicy;
+	}
+
+	public HostResolutionRequestInterceptor reportConnectSuccess(InetAddress address, long roundTripTimeNanos) {
+		return reportConnectResult(address, policy -> policy.recordSuccess(address, roundTripTimeNanos));
+	}
+
+	public HostResolutionRequestInterceptor reportConnectFailure(InetAddress address) {
+		return reportConnectResult(address, policy -> policy.recordFailure(address));
+	}
+
+	//The reports are taken into account only if the ordering policy is a LatencyFeedbackOrderingPolicy: when a report
+	//changes the order of the cached addresses of the host name that the address was obtained for, the cache entry
+	//is reordered and the JDK cache entry is removed so that the next lookups get the new order. Without the cache
+	//the new order is applied when the JDK cache entry expires
+	private HostResolutionRequestInterceptor reportConnectResult(InetAddress address, Consumer<LatencyFeedbackOrderingPolicy> recorder) {
+		AddressOrderingPolicy addressOrderingPolicy = this.addressOrderingPolicy;
+		if (!(addressOrderingPolicy instanceof LatencyFeedbackOrderingPolicy)) {
+			return this;
+		}
+		recorder.accept((LatencyFeedbackOrderingPolicy)addressOrderingPolicy);
+		HostResolutionCache cache = this.cache;
+		//The string representation contains the host name, if any, without triggering a reverse lookup
+		String addressAsString = address.toString();
+		String hostName = addressAsString.substring(0, addressAsString.lastIndexOf('/')).toLowerCase();
+		if (cache == null || hostName.isEmpty()) {
+			return this;
+		}
+		HostResolutionCache.Entry entry = cache.get(hostName);
+		if (entry == null || entry.getAddresses().size() < 2) {
+			return this;
+		}
+		List<InetAddress> orderedAddresses = addressOrderingPolicy.order(hostName, entry.getAddresses());
+		long timeToLive = entry.getExpirationTime() - System.currentTimeMillis();
+		if (!orderedAddresses.equals(entry.getAddresses()) && timeToLive > 0) {
+			cache.put(hostName, orderedAddresses, timeToLive);
+			clearJDKCache(Collections.singletonList(hostName));
+		}
+		return this;
+	}
+
+	//The resolvers are called in parallel on virtual threads when the JVM supports them: the answers
+	//are merged in the order of the resolvers as in the sequential resolution
+	public HostResolutionRequestInterceptor enableParallelResolution() {
+		return enableParallelResolution(HostResolutionExecutors.newExecutor(), true);
+	}
+
+	public HostResolutionRequestInterceptor enableParallelResolution(ExecutorService executor) {
+		return enableParallelResolution(executor, false);
+	}
+
+	private HostResolutionRequestInterceptor enableParallelResolution(ExecutorService executor, boolean owned) {
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor is required");
+		}
+		synchronized (this) {
+			disableParallelResolution();
+			parallelResolutionExecutor = executor;
+			parallelResolutionExecutorOwned = owned;
+		}
+		return this;
+	}
+
+	public HostResolutionRequestInterceptor disableParallelResolution() {
+		synchronized (this) {
+			if (parallelResolutionExecutor != null && parallelResolutionExecutorOwned) {
+				parallelResolutionExecutor.shutdown();
+			}
+			parallelResolutionExecutor = null;
+		}
+		return this;
+	}
+
+	//The snapshot is loaded at every installation and stored at the shutdown of the JVM and, if the storing
+	//interval is greater than 0, every storing interval milliseconds. The loaded entries are served until
+	//their time to live expires while they are resolved again in background
+	public HostResolutionRequestInterceptor enableCacheSnapshot(Path file, long storingInterval) {
+		HostResolutionCacheSnapshot cacheSnapshot = new HostResolutionCacheSnapshot(file);
+		synchronized (this) {
+			disableCacheSnapshot();
+			this.cacheSnapshot = cacheSnapshot;
+			if (storingInterval > 0) {
+				cacheSnapshotStorer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, HostResolutionCacheSnapshot.class.getSimpleName() + " storer");
+					thread.setDaemon(true);
+					return thread;
+				});
+				cacheSnapshotStorer.scheduleWithFixedDelay(
+					() -> storeCacheSnapshot(cacheSnapshot), storingInterval, storingInterval, TimeUnit.MILLISECONDS
+				);
+			}
+			cacheSnapshotShutdownHook = new Thread(
+				() -> storeCacheSnapshot(cacheSnapshot), HostResolutionCacheSnapshot.class.getSimpleName() + " shutdown storer"
+			);
+			Runtime.getRuntime().addShutdownHook(cacheSnapshotShutdownHook);
+		}
+		return this;
+	}
+
+	public HostResolutionRequestInterceptor disableCacheSnapshot() {
+		synchronized (this) {
+			if (cacheSnapshotStorer != null) {
+				cacheSnapshotStorer.shutdownNow();
+				cacheSnapshotStorer = null;
+			}
+			if (cacheSnapshotShutdownHook != null) {
+				try {
+					Runtime.getRuntime().removeShutdownHook(cacheSnapshotShutdownHook);
+				} catch (IllegalStateException exc) {
+					//The JVM is shutting down
+				}
+				cacheSnapshotShutdownHook = null;
+			}
+			cacheSnapshot = null;
+		}
+		return this;
+	}
+
+	public HostResolutionCacheSnapshot getCacheSnapshot() {
+		return cacheSnapshot;
+	}
+
+	public HostResolutionRequestInterceptor storeCacheSnapshot() {
+		HostResolutionCacheSnapshot cacheSnapshot = this.cacheSnapshot;
+		if (cacheSnapshot != null) {
+			storeCacheSnapshot(cacheSnapshot);
+		}
+		return this;
+	}
+
+	private void storeCacheSnapshot(HostResolutionCacheSnapshot cacheSnapshot) {
+		HostResolutionCache cache = this.cache;
+		if (cache == null) {
+			return;
+		}
+		try {
+			cacheSnapshot.store(cache);
+		} catch (IOException exc) {
+			ManagedLoggerRepository.logError(getClass()::getName, "Exception occurred while storing {}", exc, cacheSnapshot.getFile());
+		}
+	}
+
+	private void loadCacheSnapshot() {
+		HostResolutionCacheSnapshot cacheSnapshot = this.cacheSnapshot;
+		HostResolutionCache cache = this.cache;
+		if (cacheSnapshot == null || cache == null) {
+			return;
+		}
+		Collection<String> hostNames;
+		try {
+			hostNames = cacheSnapshot.load(cache);
+		} catch (IOException exc) {
+			ManagedLoggerRepository.logError(getClass()::getName, "Exception occurred while loading {}", exc, cacheSnapshot.getFile());
+			return;
+		}
+		if (!hostNames.isEmpty()) {
+			BackgroundExecutor.createTask(task -> {
+				revalidate(resolvers, cache, hostNames);
+			}).submit();
+		}
+	}
+
+	//Resolves again the given host names through the resolvers chain and replaces their cache entries:
+	//when a resolver fails with an exception, or all of them fail transiently, the entry is left as is
+	private void revalidate(Collection<HostResolver> resolvers, HostResolutionCache cache, Collection<String> hostNames) {
+		for (String hostName : hostNames) {
+			int cacheGeneration = this.cacheGeneration;
+			if (resolvers != this.resolvers || cache != this.cache) {
+				return;
+			}
+			HostResolutionRequest request = new HostResolutionRequest(DefaultHostResolver.newGetAllAddressesForHostNameArguments(hostName));
+			Collection<InetAddress> addresses = new ArrayList<>();
+			boolean notFound = true;
+			try {
+				for (HostResolver resolver : resolvers) {
+					try {
+						addresses.addAll(resolver.checkAndGetAllAddressesForHostName(request));
+					} catch (HostNotFoundException exc) {
+
+					} catch (UnknownHostException exc) {
+						notFound = false;
+					}
+				}
+				addresses = order(hostName, addresses);
+			} catch (Throwable exc) {
+				ManagedLoggerRepository.logError(getClass()::getName, "Exception occurred while revalidating {}", exc, hostName);
+				continue;
+			}
+			if (cacheGeneration == this.cacheGeneration && (notFound || !addresses.isEmpty())) {
+				long timeToLive = addresses.isEmpty() ?
+					cache.getNegativeTimeToLive() :
+					request.getTimeToLive() >= 0 ? request.getTimeToLive() : cache.getDefaultTimeToLive();
+				if (timeToLive > 0) {
+					cache.put(hostName, addresses, timeToLive);
+				} else {
+					cache.remove(Collections.singletonList(hostName));
+				}
+			}
+		}
+	}
+
+	//Readers never lock: the array is replaced on every change
+	public HostResolutionRequestInterceptor addListener(HostResolutionListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Listener is required");
+		}
+		synchronized (this) {
+			HostResolutionListener[] listeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+			listeners[listeners.length - 1] = listener;
+			this.listeners = listeners;
+		}
+		return this;
+	}
+
+	public HostResolutionRequestInterceptor removeListener(HostResolutionListener listener) {
+		synchronized (this) {
+			List<HostResolutionListener> listeners = new ArrayList<>(Arrays.asList(this.listeners));
+			if (listeners.remove(listener)) {
+				this.listeners = listeners.toArray(new HostResolutionListener[listeners.size()]);
+			}
+		}
+		return this;
+	}
+
 	public void clearCache() {
-		synchronized (DefaultHostResolver.nameServices) {
-			Methods.invokeDirect(cacheOne, "clear");
-			Methods.invokeDirect(cacheTwo, "clear");
+		HostResolutionCache cache = this.cache;
+		if (cache != null) {
+			++cacheGeneration;
+			cache.clear();
 		}
+		clearJDKCache();
+	}
+
+	private void clearJDKCache() {
+		InetAddressCache.clear();
+	}
+
+	public void clearCache(String... hostNames) {
+		clearCache(Arrays.asList(hostNames));
+	}
+
+	//Removes only the positive and negative cache entries of the given host names
+	public void clearCache(Collection<String> hostNames) {
+		if (hostNames.isEmpty()) {
+			return;
+		}
+		Collection<String> keys = new HashSet<>();
+		for (String hostName : hostNames) {
+			keys.add(hostName);
+			keys.add(hostName.toLowerCase());
+		}
+		HostResolutionCache cache = this.cache;
+		if (cache != null) {
+			++cacheGeneration;
+			cache.remove(keys);
+		}
+		clearJDKCache(keys);
+	}
+
+	private void clearJDKCache(Collection<String> keys) {
+		InetAddressCache.remove(keys);
 	}
 
 	private Collection<HostResolver> checkResolvers(HostResolver[] resolvers) {
@@ -141,70 +635,27 @@ public class HostResolutionRequestInterceptor {
 		return resolverList;
 	}
 
+	//Up to JDK 8 the JDK asks the name services of the list until one of them answers: the list contains only
+	//the proxy of the whole chain so that every lookup is cached, ordered, notified and resolved in parallel once
 	private List<Object> buildProxies() {
 		List<Object> proxies = new ArrayList<>();
-		for (HostResolver resolver : resolvers) {
-			if (resolver instanceof DefaultHostResolver) {
-				for (Object nameService : DefaultHostResolver.nameServices) {
-					proxies.add(
-						Proxy.newProxyInstance(
-							DefaultHostResolver.nameServiceClass.getClassLoader(),
-							new Class<?>[] { DefaultHostResolver.nameServiceClass },
-							buildOneToOneInvocationHandler(resolver, nameService)
-						)
-					);
-				}
-			} else {
-				proxies.add(
-					Proxy.newProxyInstance(
-						DefaultHostResolver.nameServiceClass.getClassLoader(),
-						new Class<?>[] { DefaultHostResolver.nameServiceClass },
-						buildOneToOneInvocationHandler(resolver, null)
-					)
-				);
-			}
-		}
+		proxies.add(buildProxy());
 		return proxies;
 	}
 
-	public InvocationHandler buildOneToOneInvocationHandler(HostResolver resolver, Object nameService) {
-		Function<Object[], Map<String, Object>> argumentMapBuilder =
-			nameService != null ?
-				arguments -> {
-					Map<String, Object> argumentMap = buildArgumentMap(arguments);
-					argumentMap.put("nameServices", Arrays.asList(nameService));
-					return argumentMap;
-				}:
-				this::buildArgumentMap;
-
-		return (proxy, method, arguments) -> {
-			String methodName = method.getName();
-			if (methodName.equals(DefaultHostResolver.getAllAddressesForHostNameMethod.getName())) {
-				return getAllAddressesForHostNameResultConverter.apply(
-					resolver.checkAndGetAllAddressesForHostName(argumentMapBuilder.apply(arguments))
-				);
-		    } else if (methodName.equals(DefaultHostResolver.getAllHostNamesForHostAddressMethod.getName())) {
-		    	return resolver.checkAndGetAllHostNamesForHostAddress(argumentMapBuilder.apply(arguments)).iterator().next();
-		    }
-			Object toRet = resolver.handle(method, arguments);
-			if (toRet != null) {
-				return toRet;
-			}
-			throw new UnsupportedOperationException(method.getName() + " is not supported");
-		};
-	}
-
 	private Object buildProxy() {
+		Map<Method, ThrowingFunction<Object[], Object, Throwable>> dispatchTable = buildDispatchTable(
+			buildGetAllAddressesForHostNameHandler(),
+			buildGetAllHostNamesForHostAddressHandler()
+		);
 		return Proxy.newProxyInstance(
 			DefaultHostResolver.nameServiceClass.getClassLoader(),
 			new Class<?>[] { DefaultHostResolver.nameServiceClass },
 			(proxy, method, arguments) -> {
-	    		String methodName = method.getName();
-	    		if (methodName.equals(DefaultHostResolver.getAllAddressesForHostNameMethod.getName())) {
-	    			return getAllAddressesForHostName(arguments);
-	            } else if (methodName.equals(DefaultHostResolver.getAllHostNamesForHostAddressMethod.getName())) {
-	            	return getAllHostNamesForHostAddress(arguments).iterator().next();
-	            }
+				ThrowingFunction<Object[], Object, Throwable> methodHandler = dispatchTable.get(method);
+				if (methodHandler != null) {
+					return methodHandler.apply(arguments);
+				}
 	    		for (HostResolver resolver : resolvers) {
 	    			Object toRet = resolver.handle(method, arguments);
 	    			if (toRet != null) {
@@ -216,47 +667,340 @@ public class HostResolutionRequestInterceptor {
 		);
 	}
 
-	private Object getAllAddressesForHostName(
-		Object... args
-	) throws Throwable {
-		Collection<InetAddress> addresses = new ArrayList<>();
-		Map<String, Object> argumentMap = buildArgumentMap(args);
-		for (HostResolver resolver : resolvers) {
+	//The handler of a single resolver is no longer used by the interceptor, whose proxy dispatches the calls to the
+	//whole chain: it is kept for the components that build their own name service proxies
+	@Deprecated
+	public InvocationHandler buildOneToOneInvocationHandler(HostResolver resolver, Object nameService) {
+		List<Object> nameServices = nameService != null ? Arrays.asList(nameService) : null;
+		Map<Method, ThrowingFunction<Object[], Object, Throwable>> dispatchTable = buildDispatchTable(
+			arguments -> getAllAddressesForHostNameResultConverter.apply(
+				resolver.checkAndGetAllAddressesForHostName(new HostResolutionRequest(arguments, nameServices))
+			),
+			arguments -> resolver.checkAndGetAllHostNamesForHostAddress(
+				new HostResolutionRequest(arguments, nameServices)
+			).iterator().next()
+		);
+		return (proxy, method, arguments) -> {
+			ThrowingFunction<Object[], Object, Throwable> methodHandler = dispatchTable.get(method);
+			if (methodHandler != null) {
+				return methodHandler.apply(arguments);
+			}
+			Object toRet = resolver.handle(method, arguments);
+			if (toRet != null) {
+				return toRet;
+			}
+			throw new UnsupportedOperationException(method.getName() + " is not supported");
+		};
+	}
+
+	private ThrowingFunction<Object[], Object, Throwable> buildGetAllAddressesForHostNameHandler() {
+		return arguments -> {
+			HostResolutionRequest request = new HostResolutionRequest(arguments);
+			HostResolutionScope scope = getCurrentScope();
+			if (scope != null) {
+				try {
+					return getAllAddressesForHostNameResultConverter.apply(
+						getAllAddressesForHostName(scope.resolvers, request, scope.cache)
+					);
+				} finally {
+					//The answers of a scope are not stored in the JDK cache shared with the other threads
+					InetAddressCache.release(request.getHostName());
+				}
+			}
+			if (!InetAddressCache.isScopeAware()) {
+				return getAllAddressesForHostNameResultConverter.apply(getAllAddressesForHostName(resolvers, request, cache));
+			}
+			Collection<InetAddress> addresses;
 			try {
-				addresses.addAll(resolver.checkAndGetAllAddressesForHostName(argumentMap));
+				addresses = getAllAddressesForHostName(resolvers, request, cache);
 			} catch (UnknownHostException exc) {
+				InetAddressCache.store(request.getHostName(), null);
+				throw exc;
+			}
+			InetAddressCache.store(request.getHostName(), addresses.toArray(new InetAddress[addresses.size()]));
+			return getAllAddressesForHostNameResultConverter.apply(addresses);
+		};
+	}
+
+	private ThrowingFunction<Object[], Object, Throwable> buildGetAllHostNamesForHostAddressHandler() {
+		return arguments -> {
+			HostResolutionScope scope = getCurrentScope();
+			return getAllHostNamesForHostAddress(
+				scope != null ? scope.resolvers : resolvers,
+				new HostResolutionRequest(arguments)
+			).iterator().next();
+		};
+	}
+
+	private Map<Method, ThrowingFunction<Object[], Object, Throwable>> buildDispatchTable(
+		ThrowingFunction<Object[], Object, Throwable> getAllAddressesForHostNameHandler,
+		ThrowingFunction<Object[], Object, Throwable> getAllHostNamesForHostAddressHandler
+	) {
+		//The proxy class passes always the same Method instances: the lookup costs a hash and an equality check
+		Map<Method, ThrowingFunction<Object[], Object, Throwable>> dispatchTable = new HashMap<>();
+		dispatchTable.put(DefaultHostResolver.getAllAddressesForHostNameMethod, getAllAddressesForHostNameHandler);
+		dispatchTable.put(DefaultHostResolver.getAllHostNamesForHostAddressMethod, getAllHostNamesForHostAddressHandler);
+		return dispatchTable;
+	}
 
+	private Collection<InetAddress> getAllAddressesForHostName(
+		Collection<HostResolver> resolvers,
+		HostResolutionRequest request,
+		HostResolutionCache cache
+	) throws Throwable {
+		Probe probe = this.probe;
+		if (probe != null && probe.hostName.equals(request.getHostName())) {
+			return probe.answer();
+		}
+		HostResolutionMetrics metrics = this.metrics;
+		HostResolutionEvent event = listeners.length > 0 ?
+			new HostResolutionEvent(HostResolutionEvent.Type.FORWARD_LOOKUP, request.methodArguments) :
+			null;
+		long startTime = metrics != null || event != null ? System.nanoTime() : 0;
+		String cacheKey = null;
+		int cacheGeneration = 0;
+		if (cache != null) {
+			cacheKey = request.getHostName().toLowerCase();
+			cacheGeneration = this.cacheGeneration;
+			HostResolutionCache.Entry entry = cache.get(cacheKey);
+			if (entry != null) {
+				if (entry.isNegative()) {
+					recordLookup(HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.UNRESOLVED, startTime);
+					throw new HostNotFoundException(request.getHostName());
+				}
+				recordLookup(HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.RESOLVED, startTime);
+				return entry.getAddresses();
 			}
 		}
+		Collection<InetAddress> addresses;
+		boolean[] notFound = {true};
+		try {
+			addresses = order(
+				request.getHostName(),
+				resolve(
+					resolvers,
+					resolver -> checkAndGetAllAddressesForHostName(resolver, request, metrics, event),
+					notFound
+				)
+			);
+		} catch (Throwable exc) {
+			recordLookup(HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.FAILED, startTime);
+			throw exc;
+		}
 		if (addresses.isEmpty()) {
-			throw new UnknownHostException((String)args[0]);
+			//The negative answer is cached only if no resolver has failed transiently
+			if (notFound[0] && cache != null && cacheGeneration == this.cacheGeneration) {
+				cache.put(cacheKey, addresses, cache.getNegativeTimeToLive());
+			}
+			recordLookup(HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.UNRESOLVED, startTime);
+			throw notFound[0] ?
+				new HostNotFoundException(request.getHostName()) :
+				new UnknownHostException(request.getHostName());
 		}
-		return getAllAddressesForHostNameResultConverter.apply(addresses);
+		if (cache != null && cacheGeneration == this.cacheGeneration) {
+			long timeToLive = request.getTimeToLive();
+			cache.put(cacheKey, addresses, timeToLive >= 0 ? timeToLive : cache.getDefaultTimeToLive());
+		}
+		recordLookup(HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.RESOLVED, startTime);
+		return addresses;
 	}
 
-	private Map<String, Object> buildArgumentMap(Object[] args) {
-		Map<String, Object> arguments = new LinkedHashMap<>();
-		arguments.put("methodArguments", args);
-		return arguments;
+	//Merges the answers of the resolvers ignoring the ones that have not resolved and stopping at the first failure:
+	//the notFound flag is cleared if a resolver has not resolved for a reason other than a HostNotFoundException
+	private <T> Collection<T> resolve(
+		Collection<HostResolver> resolvers,
+		ThrowingFunction<HostResolver, Collection<T>, Throwable> resolution,
+		boolean[] notFound
+	) throws Throwable {
+		Collection<T> results = new ArrayList<>();
+		ExecutorService executor = this.parallelResolutionExecutor;
+		if (executor == null || resolvers.size() < 2) {
+			for (HostResolver resolver : resolvers) {
+				try {
+					results.addAll(resolution.apply(resolver));
+				} catch (HostNotFoundException exc) {
+
+				} catch (UnknownHostException exc) {
+					notFound[0] = false;
+				}
+			}
+			return results;
+		}
+		List<Future<Collection<T>>> futures = new ArrayList<>(resolvers.size());
+		for (HostResolver resolver : resolvers) {
+			futures.add(executor.submit(() -> {
+				try {
+					return resolution.apply(resolver);
+				} catch (HostNotFoundException exc) {
+					return Collections.<T>emptyList();
+				} catch (UnknownHostException exc) {
+					//Read after the result of the future
+					notFound[0] = false;
+					return Collections.<T>emptyList();
+				} catch (Throwable exc) {
+					return Driver.throwException(exc);
+				}
+			}));
+		}
+		try {
+			for (Future<Collection<T>> future : futures) {
+				results.addAll(future.get());
+			}
+		} catch (ExecutionException exc) {
+			throw exc.getCause();
+		} catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new UnknownHostException("Interrupted while waiting for the resolvers");
+		} finally {
+			for (Future<Collection<T>> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return results;
 	}
 
+	private Collection<InetAddress> order(String hostName, Collection<InetAddress> addresses) {
+		//InetAddress equality is based on the numeric address
+		List<InetAddress> distinctAddresses = new ArrayList<>(new LinkedHashSet<>(addresses));
+		AddressOrderingPolicy addressOrderingPolicy = this.addressOrderingPolicy;
+		return addressOrderingPolicy != null && distinctAddresses.size() > 1 ?
+			addressOrderingPolicy.order(hostName, distinctAddresses) :
+			distinctAddresses;
+	}
 
-	private Collection<String> getAllHostNamesForHostAddress(
-		Object... args
+	private Collection<InetAddress> checkAndGetAllAddressesForHostName(
+		HostResolver resolver,
+		HostResolutionRequest request,
+		HostResolutionMetrics metrics,
+		HostResolutionEvent event
 	) throws Throwable {
-		Collection<String> hostNames = new ArrayList<>();
-		Map<String, Object> argumentMap = buildArgumentMap(args);
-		for (HostResolver resolver : resolvers) {
-			try {
-				hostNames.addAll(resolver.checkAndGetAllHostNamesForHostAddress(argumentMap));
-			} catch (UnknownHostException exc) {
+		if (metrics == null && event == null) {
+			return resolver.checkAndGetAllAddressesForHostName(request);
+		}
+		long startTime = System.nanoTime();
+		try {
+			Collection<InetAddress> addresses = resolver.checkAndGetAllAddressesForHostName(request);
+			recordResolverCall(resolver, HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.RESOLVED, startTime, null);
+			return addresses;
+		} catch (UnknownHostException exc) {
+			recordResolverCall(resolver, HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.UNRESOLVED, startTime, exc);
+			throw exc;
+		} catch (Throwable exc) {
+			recordResolverCall(resolver, HostResolutionEvent.Type.FORWARD_LOOKUP, metrics, event, HostResolutionEvent.Outcome.FAILED, startTime, exc);
+			throw exc;
+		}
+	}
 
-			}
+	private Collection<String> getAllHostNamesForHostAddress(
+		Collection<HostResolver> resolvers,
+		HostResolutionRequest request
+	) throws Throwable {
+		HostResolutionMetrics metrics = this.metrics;
+		HostResolutionEvent event = listeners.length > 0 ?
+			new HostResolutionEvent(HostResolutionEvent.Type.REVERSE_LOOKUP, request.methodArguments) :
+			null;
+		long startTime = metrics != null || event != null ? System.nanoTime() : 0;
+		Collection<String> hostNames;
+		boolean[] notFound = {true};
+		try {
+			hostNames = resolve(
+				resolvers,
+				resolver -> checkAndGetAllHostNamesForHostAddress(resolver, request, metrics, event),
+				notFound
+			);
+		} catch (Throwable exc) {
+			recordLookup(HostResolutionEvent.Type.REVERSE_LOOKUP, metrics, event, HostResolutionEvent.Outcome.FAILED, startTime);
+			throw exc;
 		}
 		if (hostNames.isEmpty()) {
-			throw new UnknownHostException(IPAddressUtil.INSTANCE.numericToTextFormat((byte[])args[0]));
+			recordLookup(HostResolutionEvent.Type.REVERSE_LOOKUP, metrics, event, HostResolutionEvent.Outcome.UNRESOLVED, startTime);
+			String address = IPAddressUtil.INSTANCE.numericToTextFormat(request.getAddress());
+			throw notFound[0] ? new HostNotFoundException(address) : new UnknownHostException(address);
 		}
+		recordLookup(HostResolutionEvent.Type.REVERSE_LOOKUP, metrics, event, HostResolutionEvent.Outcome.RESOLVED, startTime);
 		return hostNames;
 	}
 
-}
\ No newline at end of file
+	private Collection<String> checkAndGetAllHostNamesForHostAddress(
+		HostResolver resolver,
+		HostResolutionRequest request,
+		HostResolutionMetrics metrics,
+		HostResolutionEvent event
+	) throws Throwable {
+		if (metrics == null && event == null) {
+			return resolver.checkAndGetAllHostNamesForHostAddress(request);
+		}
+		long startTime = System.nanoTime();
+		try {
+			Collection<String> hostNames = resolver.checkAndGetAllHostNamesForHostAddress(request);
+			recordResolverCall(resolver, HostResolutionEvent.Type.REVERSE_LOOKUP, metrics, event, HostResolutionEvent.Outcome.RESOLVED, startTime, null);
+			return hostNames;
+		} catch (UnknownHostException exc) {
+			recordResolverCall(resolver, HostResolutionEvent.Type.REVERSE_LOOKUP, metrics, event, HostResolutionEvent.Outcome.UNRESOLVED, startTime, exc);
+			throw exc;
+		} catch (Throwable exc) {
+			recordResolverCall(resolver, HostResolutionEvent.Type.REVERSE_LOOKUP, metrics, event, HostResolutionEvent.Outcome.FAILED, startTime, exc);
+			throw exc;
+		}
+	}
+
+	private void recordResolverCall(
+		HostResolver resolver,
+		HostResolutionEvent.Type type,
+		HostResolutionMetrics metrics,
+		HostResolutionEvent event,
+		HostResolutionEvent.Outcome outcome,
+		long startTime,
+		Throwable exception
+	) {
+		long elapsedNanos = System.nanoTime() - startTime;
+		if (metrics != null) {
+			metrics.forResolver(resolver).operation(type).record(outcome, elapsedNanos);
+		}
+		if (event != null) {
+			event.add(resolver, outcome, elapsedNanos, exception);
+		}
+	}
+
+	private void recordLookup(
+		HostResolutionEvent.Type type,
+		HostResolutionMetrics metrics,
+		HostResolutionEvent event,
+		HostResolutionEvent.Outcome outcome,
+		long startTime
+	) {
+		if (metrics == null && event == null) {
+			return;
+		}
+		long elapsedNanos = System.nanoTime() - startTime;
+		if (metrics != null) {
+			metrics.operation(type).record(outcome, elapsedNanos);
+		}
+		if (event != null) {
+			event.complete(outcome, elapsedNanos);
+			for (HostResolutionListener listener : listeners) {
+				try {
+					listener.onResolution(event);
+				} catch (Throwable exc) {
+					ManagedLoggerRepository.logError(getClass()::getName, "Exception occurred while notifying {}", exc, event);
+				}
+			}
+		}
+	}
+
+	private static class Probe {
+		private final String hostName;
+		private final CountDownLatch answered;
+
+		Probe() {
+			hostName = "probe-" + UUID.randomUUID().toString() + ".burningwave.invalid";
+			answered = new CountDownLatch(1);
+		}
+
+		Collection<InetAddress> answer() throws UnknownHostException {
+			answered.countDown();
+			return Collections.singletonList(InetAddress.getByAddress(hostName, new byte[] {127, 0, 0, 1}));
+		}
+	}
+
+}
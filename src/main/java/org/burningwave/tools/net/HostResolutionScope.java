@@ -0,0 +1,110 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+//A resolver chain bound to the threads that open it or that run the tasks wrapped by it: while the scope is
+//bound the lookups of the thread are answered by its resolvers and its cache instead of the installed ones.
+//The scopes are effective only while the interceptor is installed and must be closed by the opening thread
+//in the reverse order of opening
+public class HostResolutionScope implements AutoCloseable {
+	private final HostResolutionRequestInterceptor interceptor;
+	final Collection<HostResolver> resolvers;
+	final HostResolutionCache cache;
+	private final Thread owner;
+	private HostResolutionScope previous;
+	private boolean closed;
+
+	HostResolutionScope(HostResolutionRequestInterceptor interceptor, Collection<HostResolver> resolvers, HostResolutionCache cache) {
+		this.interceptor = interceptor;
+		this.resolvers = resolvers;
+		this.cache = cache;
+		this.owner = Thread.currentThread();
+	}
+
+	HostResolutionScope open() {
+		previous = interceptor.bindScope(this);
+		return this;
+	}
+
+	public Collection<HostResolver> getResolvers() {
+		return resolvers;
+	}
+
+	public HostResolutionCache getCache() {
+		return cache;
+	}
+
+	//The returned task runs with this scope bound to the thread that executes it
+	public Runnable wrap(Runnable task) {
+		return () -> {
+			HostResolutionScope previous = interceptor.bindScope(this);
+			try {
+				task.run();
+			} finally {
+				interceptor.bindScope(previous);
+			}
+		};
+	}
+
+	public <T> Callable<T> wrap(Callable<T> task) {
+		return () -> {
+			HostResolutionScope previous = interceptor.bindScope(this);
+			try {
+				return task.call();
+			} finally {
+				interceptor.bindScope(previous);
+			}
+		};
+	}
+
+	//The scope that was bound to the thread when this one has been opened is bound again
+	@Override
+	public void close() {
+		if (Thread.currentThread() != owner) {
+			throw new IllegalStateException(
+				Strings.compile("Scope opened by thread {} cannot be closed by thread {}", owner.getName(), Thread.currentThread().getName())
+			);
+		}
+		if (closed) {
+			return;
+		}
+		if (interceptor.getCurrentScope() != this) {
+			throw new IllegalStateException("Scope cannot be closed before the scopes opened after it");
+		}
+		closed = true;
+		interceptor.bindScope(previous);
+		interceptor.onScopeClosed(this);
+	}
+
+}
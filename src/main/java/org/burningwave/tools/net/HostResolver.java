@@ -40,7 +40,7 @@ public interface HostResolver {
 		String hostName = (String)getMethodArguments(argumentMap)[0];
 		Collection<InetAddress> addresses = getAllAddressesForHostName(argumentMap);
 		if (addresses.isEmpty()) {
-			throw new UnknownHostException(hostName);
+			throw new HostNotFoundException(hostName);
 		}
 		return addresses;
 	}
@@ -49,7 +49,7 @@ public interface HostResolver {
 		byte[] address = (byte[])getMethodArguments(argumentMap)[0];
 		Collection<String> hostNames = getAllHostNamesForHostAddress(argumentMap);
 		if (hostNames.isEmpty()) {
-			throw new UnknownHostException(IPAddressUtil.INSTANCE.numericToTextFormat(address));
+			throw new HostNotFoundException(IPAddressUtil.INSTANCE.numericToTextFormat(address));
 		}
 		return hostNames;
 	}
@@ -66,7 +66,21 @@ public interface HostResolver {
 		throw new UnsupportedOperationException(method.getName() + " is not supported");
 	}
 
+	//Lets the resolver specify for how many milliseconds its answer can be cached: when more
+	//resolvers answer the same request the lowest value is kept
+	public default void setTimeToLive(Map<String, Object> arguments, long timeToLive) {
+		synchronized (arguments) {
+			Long currentTimeToLive = (Long)arguments.get(HostResolutionRequest.TIME_TO_LIVE_KEY);
+			if (currentTimeToLive == null || timeToLive < currentTimeToLive) {
+				arguments.put(HostResolutionRequest.TIME_TO_LIVE_KEY, timeToLive);
+			}
+		}
+	}
+
 	public default Object[] getMethodArguments(Map<String, Object> arguments) {
-		return (Object[])arguments.get("methodArguments");
+		if (arguments instanceof HostResolutionRequest) {
+			return ((HostResolutionRequest)arguments).methodArguments;
+		}
+		return (Object[])arguments.get(HostResolutionRequest.METHOD_ARGUMENTS_KEY);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,394 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
+import static org.burningwave.core.assembler.StaticComponentContainer.Fields;
+import static org.burningwave.core.assembler.StaticComponentContainer.Methods;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.burningwave.core.classes.FieldCriteria;
+import org.burningwave.core.classes.MethodCriteria;
+
+//The cache of the InetAddress class, loaded only when it is cleared or when the first scope is opened. Up to JDK 8
+//the answers are kept by two Cache objects that own a not thread safe map, later by a concurrent map whose values
+//are either the placeholders of the host names being resolved (NameServiceAddresses) or the cached answers. The
+//fields of the JDK are never replaced: once the scopes are used the answers of the installed resolvers are stored in
+//place of the placeholders as entries that send the lookups of the threads bound to a scope to the name service
+@SuppressWarnings("unchecked")
+final class InetAddressCache {
+	private static final Object cacheOne;
+	private static final Object cacheTwo;
+	private static final Class<?> addressesClass;
+	private static final Class<?> nameServiceAddressesClass;
+	private static final boolean lookupLockUsed;
+	private static final MethodHandle getAddressesFromNameServiceMethodHandle;
+	private static final int getAddressesFromNameServiceParameterCount;
+	private static final MethodHandle cachePolicyMethodHandle;
+	private static final MethodHandle negativeCachePolicyMethodHandle;
+	private static final NavigableSet<ScopeAwareAddresses> expirySet;
+	private static volatile boolean scopeAware;
+
+	static {
+		Field cacheOneField = Fields.findOne(FieldCriteria.withoutConsideringParentClasses().name(fieldName -> {
+			return fieldName.equals("cache") || fieldName.equals("addressCache");
+		}), DefaultHostResolver.inetAddressClass);
+		if (cacheOneField.getName().equals("addressCache")) {
+			//Up to JDK 8 the maps are guarded by the caches that own them
+			cacheOne = Fields.getStaticDirect(cacheOneField);
+			cacheTwo = Fields.getStaticDirect(DefaultHostResolver.inetAddressClass, "negativeCache");
+			addressesClass = null;
+			nameServiceAddressesClass = null;
+			lookupLockUsed = false;
+			getAddressesFromNameServiceMethodHandle = null;
+			getAddressesFromNameServiceParameterCount = 0;
+			cachePolicyMethodHandle = null;
+			negativeCachePolicyMethodHandle = null;
+		} else {
+			cacheOne = Fields.getStaticDirect(cacheOneField);
+			cacheTwo = Fields.getStaticDirect(DefaultHostResolver.inetAddressClass, "expirySet");
+			addressesClass = findInetAddressClass("Addresses");
+			nameServiceAddressesClass = findInetAddressClass("NameServiceAddresses");
+			//Until JDK 20 the placeholders are locked by synchronizing on them
+			lookupLockUsed = Fields.findFirst(
+				FieldCriteria.withoutConsideringParentClasses().name("lookupLock"::equals),
+				nameServiceAddressesClass
+			) != null;
+			Method getAddressesFromNameServiceMethod = Methods.findFirst(
+				MethodCriteria.withoutConsideringParentClasses().name("getAddressesFromNameService"::equals),
+				DefaultHostResolver.inetAddressClass
+			);
+			getAddressesFromNameServiceMethodHandle = findMethodHandle(getAddressesFromNameServiceMethod);
+			getAddressesFromNameServiceParameterCount = getAddressesFromNameServiceMethod.getParameterCount();
+			Class<?> cachePolicyClass = null;
+			try {
+				cachePolicyClass = Class.forName("sun.net.InetAddressCachePolicy");
+			} catch (ClassNotFoundException exc) {
+				Driver.throwException(exc);
+			}
+			cachePolicyMethodHandle = findMethodHandle(
+				Methods.findFirst(MethodCriteria.withoutConsideringParentClasses().name("get"::equals), cachePolicyClass)
+			);
+			negativeCachePolicyMethodHandle = findMethodHandle(
+				Methods.findFirst(MethodCriteria.withoutConsideringParentClasses().name("getNegative"::equals), cachePolicyClass)
+			);
+		}
+		expirySet = new ConcurrentSkipListSet<>();
+	}
+
+	private InetAddressCache() {}
+
+	private static Class<?> findInetAddressClass(String simpleName) {
+		for (Class<?> cls : DefaultHostResolver.inetAddressClass.getDeclaredClasses()) {
+			if (cls.getSimpleName().equals(simpleName)) {
+				return cls;
+			}
+		}
+		return null;
+	}
+
+	private static MethodHandle findMethodHandle(Method method) {
+		MethodHandle methodHandle = null;
+		try {
+			methodHandle = Driver.getConsulter(method.getDeclaringClass()).unreflect(method);
+		} catch (IllegalAccessException exc) {
+			Driver.throwException(exc);
+		}
+		return methodHandle.asType(methodHandle.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+	}
+
+	static boolean isScopeAware() {
+		return scopeAware;
+	}
+
+	//Called when a scope is opened: the answers already cached by the JDK are converted so that they are not
+	//returned to the threads bound to a scope
+	static void enableScopeAwareness() {
+		if (scopeAware) {
+			return;
+		}
+		synchronized (DefaultHostResolver.nameServices) {
+			if (scopeAware) {
+				return;
+			}
+			if (addressesClass == null) {
+				synchronized (cacheOne) {
+					Fields.setDirect(cacheOne, "cache", new ScopeAwareLinkedHashMap(getMap(cacheOne)));
+				}
+				synchronized (cacheTwo) {
+					Fields.setDirect(cacheTwo, "cache", new ScopeAwareLinkedHashMap(getMap(cacheTwo)));
+				}
+			} else {
+				ConcurrentMap<String, Object> cache = (ConcurrentMap<String, Object>)cacheOne;
+				for (Map.Entry<String, Object> entry : cache.entrySet()) {
+					Object addresses = entry.getValue();
+					if (!nameServiceAddressesClass.isInstance(addresses) && !Proxy.isProxyClass(addresses.getClass())) {
+						ScopeAwareAddresses scopeAwareAddresses = new ScopeAwareAddresses(
+							entry.getKey(),
+							Fields.getDirect(addresses, "inetAddresses"),
+							Fields.getDirect(addresses, "expiryTime")
+						);
+						if (cache.replace(entry.getKey(), addresses, scopeAwareAddresses.proxy)) {
+							((Collection<Object>)cacheTwo).remove(addresses);
+							scopeAwareAddresses.scheduleExpiry();
+						}
+					}
+				}
+			}
+			scopeAware = true;
+		}
+	}
+
+	//Replaces the placeholder of the current thread with the answer, or with a negative answer if the addresses
+	//are null, so that the JDK does not store it
+	static void store(String hostName, InetAddress[] addresses) throws Throwable {
+		if (addressesClass == null) {
+			return;
+		}
+		removeExpiredAddresses();
+		Object placeholder = getPlaceholderLockedByCurrentThread(hostName);
+		if (placeholder == null) {
+			return;
+		}
+		//The policies are in seconds: -1 means forever and 0 never, in which case the JDK removes the placeholder
+		int cachePolicy = (int)(Object)(addresses != null ? cachePolicyMethodHandle : negativeCachePolicyMethodHandle).invokeExact(new Object[0]);
+		if (cachePolicy == 0) {
+			return;
+		}
+		ScopeAwareAddresses scopeAwareAddresses = new ScopeAwareAddresses(
+			hostName,
+			addresses,
+			cachePolicy < 0 ? 0L : System.nanoTime() + 1000_000_000L * cachePolicy
+		);
+		if (((ConcurrentMap<String, Object>)cacheOne).replace(hostName, placeholder, scopeAwareAddresses.proxy)) {
+			scopeAwareAddresses.scheduleExpiry();
+		}
+	}
+
+	//Removes the placeholder of the current thread so that the answer of a scope is not stored
+	static void release(String hostName) {
+		if (addressesClass == null) {
+			return;
+		}
+		Object placeholder = getPlaceholderLockedByCurrentThread(hostName);
+		if (placeholder != null) {
+			((ConcurrentMap<String, Object>)cacheOne).remove(hostName, placeholder);
+		}
+	}
+
+	//The JDK calls the name service while holding the lock of the placeholder of the host name
+	private static Object getPlaceholderLockedByCurrentThread(String hostName) {
+		Object addresses = ((ConcurrentMap<String, Object>)cacheOne).get(hostName);
+		if (!nameServiceAddressesClass.isInstance(addresses)) {
+			return null;
+		}
+		boolean locked = lookupLockUsed ?
+			((ReentrantLock)Fields.getDirect(addresses, "lookupLock")).isHeldByCurrentThread() :
+			Thread.holdsLock(addresses);
+		return locked ? addresses : null;
+	}
+
+	private static void removeExpiredAddresses() {
+		long now = System.nanoTime();
+		for (ScopeAwareAddresses addresses : expirySet) {
+			if (!addresses.isExpired(now)) {
+				break;
+			}
+			addresses.remove();
+		}
+	}
+
+	static void clear() {
+		synchronized (DefaultHostResolver.nameServices) {
+			synchronized (cacheOne) {
+				getMap(cacheOne).clear();
+			}
+			synchronized (cacheTwo) {
+				if (cacheTwo instanceof Collection) {
+					((Collection<Object>)cacheTwo).clear();
+				} else {
+					getMap(cacheTwo).clear();
+				}
+			}
+			expirySet.clear();
+		}
+	}
+
+	static void remove(Collection<String> hostNames) {
+		//The key sets of the maps of JDK 8 are empty for the threads bound to a scope
+		synchronized (DefaultHostResolver.nameServices) {
+			synchronized (cacheOne) {
+				hostNames.forEach(getMap(cacheOne)::remove);
+			}
+			synchronized (cacheTwo) {
+				if (cacheTwo instanceof Collection) {
+					((Collection<Object>)cacheTwo).removeIf(cachedAddresses ->
+						hostNames.contains(Fields.getDirect(cachedAddresses, "host"))
+					);
+				} else {
+					hostNames.forEach(getMap(cacheTwo)::remove);
+				}
+			}
+			expirySet.removeIf(addresses -> hostNames.contains(addresses.hostName));
+		}
+	}
+
+	private static Map<Object, Object> getMap(Object cache) {
+		return cache instanceof Map ? (Map<Object, Object>)cache : Fields.getDirect(cache, "cache");
+	}
+
+	private static InetAddress[] getAddressesFromNameService(String hostName) throws Throwable {
+		Object[] arguments = new Object[getAddressesFromNameServiceParameterCount];
+		arguments[0] = hostName;
+		return (InetAddress[])(Object)getAddressesFromNameServiceMethodHandle.invokeExact(arguments);
+	}
+
+	private static boolean isBoundToScope() {
+		return HostResolutionRequestInterceptor.INSTANCE.getCurrentScope() != null;
+	}
+
+	//An answer of the installed resolvers: the threads bound to a scope ask the name service, that is the
+	//interceptor, without reading or storing the JDK cache while the other threads get the answer until it expires
+	private static class ScopeAwareAddresses implements InvocationHandler, Comparable<ScopeAwareAddresses> {
+		private static final AtomicLong sequence = new AtomicLong();
+		private final String hostName;
+		private final InetAddress[] addresses;
+		//In terms of System.nanoTime(): 0 means never
+		private final long expiryTime;
+		private final long id;
+		private final Object proxy;
+
+		ScopeAwareAddresses(String hostName, InetAddress[] addresses, long expiryTime) {
+			this.hostName = hostName;
+			this.addresses = addresses;
+			this.expiryTime = expiryTime;
+			this.id = sequence.incrementAndGet();
+			this.proxy = Proxy.newProxyInstance(addressesClass.getClassLoader(), new Class<?>[] { addressesClass }, this);
+		}
+
+		void scheduleExpiry() {
+			if (expiryTime != 0L) {
+				expirySet.add(this);
+			}
+		}
+
+		boolean isExpired(long now) {
+			return expiryTime != 0L && expiryTime - now < 0L;
+		}
+
+		void remove() {
+			if (expirySet.remove(this)) {
+				((ConcurrentMap<String, Object>)cacheOne).remove(hostName, proxy);
+			}
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable {
+			String methodName = method.getName();
+			if (methodName.equals("get")) {
+				return get();
+			} else if (methodName.equals("equals")) {
+				return proxy == arguments[0];
+			} else if (methodName.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			return ScopeAwareAddresses.class.getSimpleName() + "[" + hostName + "]";
+		}
+
+		private InetAddress[] get() throws Throwable {
+			if (isBoundToScope()) {
+				return getAddressesFromNameService(hostName);
+			}
+			if (isExpired(System.nanoTime())) {
+				//A new lookup takes place as if the JDK had found no cached answer
+				expirySet.remove(this);
+				((ConcurrentMap<String, Object>)cacheOne).remove(hostName, proxy);
+				return InetAddress.getAllByName(hostName);
+			}
+			if (addresses == null) {
+				throw new UnknownHostException(hostName);
+			}
+			return addresses;
+		}
+
+		@Override
+		public int compareTo(ScopeAwareAddresses other) {
+			long difference = expiryTime - other.expiryTime;
+			if (difference != 0L) {
+				return difference < 0L ? -1 : 1;
+			}
+			return Long.compare(id, other.id);
+		}
+
+	}
+
+	//The JDK 8 caches iterate the keys and get the entries before storing a new one: the maps look empty to the
+	//threads bound to a scope and ignore the answers that they store
+	@SuppressWarnings("serial")
+	private static class ScopeAwareLinkedHashMap extends LinkedHashMap<Object, Object> {
+
+		ScopeAwareLinkedHashMap(Map<Object, Object> entries) {
+			super(entries);
+		}
+
+		@Override
+		public Object get(Object key) {
+			return isBoundToScope() ? null : super.get(key);
+		}
+
+		@Override
+		public Object put(Object key, Object value) {
+			return isBoundToScope() ? null : super.put(key, value);
+		}
+
+		@Override
+		public Set<Object> keySet() {
+			return isBoundToScope() ? Collections.emptySet() : super.keySet();
+		}
+
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Orders the addresses by the connect latencies reported by the callers: the cost of an address is the
+//exponentially weighted moving average of its latency increased by its failure rate multiplied by the
+//failure penalty. The addresses never measured come first so that they get measured, and the ties are
+//ordered by the fallback policy
+public class LatencyFeedbackOrderingPolicy implements AddressOrderingPolicy {
+	public static final long DEFAULT_FAILURE_PENALTY;
+	public static final int DEFAULT_MAXIMUM_SIZE;
+	private static final double SMOOTHING_FACTOR;
+
+	static {
+		DEFAULT_FAILURE_PENALTY = 10_000_000_000L;
+		DEFAULT_MAXIMUM_SIZE = 10000;
+		SMOOTHING_FACTOR = 0.3;
+	}
+
+	private final Map<InetAddress, Statistics> statisticsForAddress;
+	private final AddressOrderingPolicy fallbackPolicy;
+	private final long failurePenalty;
+	private final int maximumSize;
+
+	public LatencyFeedbackOrderingPolicy() {
+		this(AddressOrderingPolicy.RFC_6724, DEFAULT_FAILURE_PENALTY, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	//The failure penalty is in nanoseconds and the maximum size is the number of addresses tracked
+	public LatencyFeedbackOrderingPolicy(AddressOrderingPolicy fallbackPolicy, long failurePenalty, int maximumSize) {
+		if (fallbackPolicy == null || failurePenalty < 0 || maximumSize < 1) {
+			throw new IllegalArgumentException(
+				Strings.compile("Invalid settings: {}, {}, {}", fallbackPolicy, failurePenalty, maximumSize)
+			);
+		}
+		this.statisticsForAddress = new ConcurrentHashMap<>();
+		this.fallbackPolicy = fallbackPolicy;
+		this.failurePenalty = failurePenalty;
+		this.maximumSize = maximumSize;
+	}
+
+	public void recordSuccess(InetAddress address, long latencyNanos) {
+		getStatistics(address).record(true, latencyNanos);
+	}
+
+	public void recordFailure(InetAddress address) {
+		getStatistics(address).record(false, 0);
+	}
+
+	//Returns -1 if the address has never been measured
+	public double getCost(InetAddress address) {
+		Statistics statistics = statisticsForAddress.get(address);
+		return statistics != null ? statistics.getCost(failurePenalty) : -1;
+	}
+
+	@Override
+	public List<InetAddress> order(String hostName, List<InetAddress> addresses) {
+		List<InetAddress> orderedAddresses = new ArrayList<>(fallbackPolicy.order(hostName, addresses));
+		orderedAddresses.sort(Comparator.comparingDouble(address -> Math.max(getCost(address), 0)));
+		return orderedAddresses;
+	}
+
+	private Statistics getStatistics(InetAddress address) {
+		Statistics statistics = statisticsForAddress.get(address);
+		if (statistics == null) {
+			if (statisticsForAddress.size() >= maximumSize) {
+				//The addresses are forgotten in no particular order: the ones still in use are measured again
+				statisticsForAddress.keySet().removeIf(trackedAddress -> statisticsForAddress.size() >= maximumSize);
+			}
+			statistics = statisticsForAddress.computeIfAbsent(address, key -> new Statistics());
+		}
+		return statistics;
+	}
+
+	private static class Statistics {
+		private double averageLatency;
+		private double failureRate;
+		private boolean measured;
+
+		private synchronized void record(boolean succeeded, long latencyNanos) {
+			if (succeeded) {
+				averageLatency = measured ?
+					averageLatency + SMOOTHING_FACTOR * (latencyNanos - averageLatency) :
+					latencyNanos;
+				failureRate *= 1 - SMOOTHING_FACTOR;
+			} else {
+				failureRate += SMOOTHING_FACTOR * (1 - failureRate);
+			}
+			measured = true;
+		}
+
+		private synchronized double getCost(long failurePenalty) {
+			return averageLatency + failureRate * failurePenalty;
+		}
+	}
+
+}
@@ -0,0 +1,466 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
+import static org.burningwave.core.assembler.StaticComponentContainer.Fields;
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+//A fixed size hash table stored in a memory mapped file that the processes of the same host share.
+//The file starts with a header (magic number, version, slot count and slot size) followed by the slots,
+//each one holding a sequence number, the hash and the expiration time of the entry, the lengths of the name
+//and of the address list, the name and the addresses as length prefixed byte arrays. The readers never lock:
+//they copy the slot and retry if its sequence number was odd or has changed meanwhile. The sequence numbers are
+//read with acquire and written with release semantics through Unsafe, in the native byte order, so that the
+//accesses to the slots are ordered among the processes too. The writers are serialized by a lock on the file
+//and, among the threads of the same JVM, by a lock on its path
+public class MappedFileHostResolutionCache implements HostResolutionCache, Closeable {
+	public static final long DEFAULT_TIME_TO_LIVE = 30000;
+	public static final long DEFAULT_NEGATIVE_TIME_TO_LIVE = 10000;
+
+	private static final int MAGIC_NUMBER = 0x42574D43;
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 64;
+	private static final int SLOT_SIZE = 512;
+	private static final int SLOT_DATA_OFFSET = 19;
+	private static final int MAXIMUM_NAME_LENGTH = 255;
+	private static final int MAXIMUM_PROBES = 8;
+	private static final int MAXIMUM_READ_ATTEMPTS = 64;
+	private static final Map<Path, ReentrantLock> writeLocks;
+	private static final MethodHandle getIntVolatileMethodHandle;
+	private static final MethodHandle putOrderedIntMethodHandle;
+	private static final MethodHandle loadFenceMethodHandle;
+	private static final MethodHandle storeFenceMethodHandle;
+
+	static {
+		writeLocks = new ConcurrentHashMap<>();
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Object unsafe = Fields.getStaticDirect(unsafeClass, "theUnsafe");
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			getIntVolatileMethodHandle = lookup.findVirtual(
+				unsafeClass, "getIntVolatile", MethodType.methodType(int.class, Object.class, long.class)
+			).bindTo(unsafe);
+			putOrderedIntMethodHandle = lookup.findVirtual(
+				unsafeClass, "putOrderedInt", MethodType.methodType(void.class, Object.class, long.class, int.class)
+			).bindTo(unsafe);
+			loadFenceMethodHandle = lookup.findVirtual(unsafeClass, "loadFence", MethodType.methodType(void.class)).bindTo(unsafe);
+			storeFenceMethodHandle = lookup.findVirtual(unsafeClass, "storeFence", MethodType.methodType(void.class)).bindTo(unsafe);
+		} catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException exc) {
+			throw new ExceptionInInitializerError(exc);
+		}
+	}
+
+	private final Path file;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final long address;
+	private final ReentrantLock writeLock;
+	private final int slotCount;
+	private final long defaultTimeToLive;
+	private final long negativeTimeToLive;
+
+	public MappedFileHostResolutionCache(Path file, int slotCount) throws IOException {
+		this(file, slotCount, DEFAULT_TIME_TO_LIVE, DEFAULT_NEGATIVE_TIME_TO_LIVE);
+	}
+
+	//If the file already exists its slot count is used
+	public MappedFileHostResolutionCache(Path file, int slotCount, long defaultTimeToLive, long negativeTimeToLive) throws IOException {
+		if (file == null || slotCount < 1 || slotCount > (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE) {
+			throw new IllegalArgumentException(Strings.compile("Invalid settings: {}, {}", file, slotCount));
+		}
+		if (defaultTimeToLive < 0 || negativeTimeToLive < 0) {
+			throw new IllegalArgumentException(
+				Strings.compile("Invalid time to live: {}, {}", defaultTimeToLive, negativeTimeToLive)
+			);
+		}
+		this.file = file.toAbsolutePath().normalize();
+		this.defaultTimeToLive = defaultTimeToLive;
+		this.negativeTimeToLive = negativeTimeToLive;
+		this.writeLock = writeLocks.computeIfAbsent(this.file, key -> new ReentrantLock());
+		Path parent = this.file.getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			writeLock.lock();
+			FileLock fileLock = null;
+			try {
+				fileLock = channel.lock();
+				if (channel.size() < HEADER_SIZE) {
+					channel.truncate(0);
+					this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long)slotCount * SLOT_SIZE);
+					buffer.putInt(8, slotCount);
+					buffer.putInt(12, SLOT_SIZE);
+					buffer.putInt(4, VERSION);
+					buffer.putInt(0, MAGIC_NUMBER);
+					buffer.force();
+				} else {
+					MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+					if (header.getInt(0) != MAGIC_NUMBER || header.getInt(4) != VERSION || header.getInt(12) != SLOT_SIZE) {
+						throw new IOException(Strings.compile("{} is not a valid cache file", this.file));
+					}
+					this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long)header.getInt(8) * SLOT_SIZE);
+				}
+				this.slotCount = buffer.getInt(8);
+				this.address = Fields.getDirect(buffer, "address");
+			} finally {
+				try {
+					if (fileLock != null) {
+						fileLock.release();
+					}
+				} finally {
+					writeLock.unlock();
+				}
+			}
+		} catch (Throwable exc) {
+			channel.close();
+			throw exc;
+		}
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public int getSlotCount() {
+		return slotCount;
+	}
+
+	@Override
+	public Entry get(String hostName) {
+		byte[] name = hostName.getBytes(StandardCharsets.UTF_8);
+		if (name.length > MAXIMUM_NAME_LENGTH) {
+			return null;
+		}
+		int hash = hostName.hashCode();
+		long currentTime = System.currentTimeMillis();
+		byte[] slot = new byte[SLOT_SIZE];
+		for (int probe = 0; probe < MAXIMUM_PROBES; probe++) {
+			int offset = getSlotOffset(hash, probe);
+			if (buffer.getInt(offset + 4) == hash && readSlot(offset, slot) && matches(slot, hash, name)) {
+				Entry entry = toEntry(slot, hostName);
+				return entry != null && !entry.isExpired(currentTime) ? entry : null;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void put(String hostName, Collection<InetAddress> addresses, long timeToLive) {
+		byte[] name = hostName.getBytes(StandardCharsets.UTF_8);
+		if (timeToLive <= 0 || name.length > MAXIMUM_NAME_LENGTH) {
+			return;
+		}
+		//The addresses that do not fit in the slot are not stored
+		byte[] data = new byte[SLOT_SIZE];
+		System.arraycopy(name, 0, data, SLOT_DATA_OFFSET, name.length);
+		int position = SLOT_DATA_OFFSET + name.length;
+		int addressCount = 0;
+		for (InetAddress address : addresses) {
+			byte[] rawAddress = address.getAddress();
+			if (addressCount == 255 || position + 1 + rawAddress.length > SLOT_SIZE) {
+				break;
+			}
+			data[position++] = (byte)rawAddress.length;
+			System.arraycopy(rawAddress, 0, data, position, rawAddress.length);
+			position += rawAddress.length;
+			++addressCount;
+		}
+		if (addressCount == 0 && !addresses.isEmpty()) {
+			return;
+		}
+		int hash = hostName.hashCode();
+		long currentTime = System.currentTimeMillis();
+		int length = position;
+		int nameLength = name.length;
+		byte storedAddressCount = (byte)addressCount;
+		write(() -> {
+			int targetOffset = -1;
+			long earliestExpirationTime = Long.MAX_VALUE;
+			byte[] slot = new byte[SLOT_SIZE];
+			for (int probe = 0; probe < MAXIMUM_PROBES; probe++) {
+				int offset = getSlotOffset(hash, probe);
+				copySlot(offset, slot);
+				if (matches(slot, hash, name)) {
+					targetOffset = offset;
+					break;
+				}
+				//The empty and the expired slots have the lowest expiration times and are reused first
+				long expirationTime = getExpirationTime(slot);
+				if (expirationTime < earliestExpirationTime) {
+					earliestExpirationTime = expirationTime;
+					targetOffset = offset;
+				}
+			}
+			writeSlot(targetOffset, hash, currentTime + timeToLive, nameLength, storedAddressCount, data, length);
+		});
+	}
+
+	@Override
+	public void remove(Collection<String> hostNames) {
+		write(() -> {
+			byte[] slot = new byte[SLOT_SIZE];
+			for (String hostName : hostNames) {
+				byte[] name = hostName.getBytes(StandardCharsets.UTF_8);
+				int hash = hostName.hashCode();
+				for (int probe = 0; probe < MAXIMUM_PROBES; probe++) {
+					int offset = getSlotOffset(hash, probe);
+					copySlot(offset, slot);
+					if (matches(slot, hash, name)) {
+						writeSlot(offset, 0, 0, 0, (byte)0, slot, 0);
+					}
+				}
+			}
+		});
+	}
+
+	@Override
+	public void clear() {
+		write(() -> {
+			for (int index = 0; index < slotCount; index++) {
+				int offset = HEADER_SIZE + index * SLOT_SIZE;
+				if (buffer.getShort(offset + 16) != 0) {
+					writeSlot(offset, 0, 0, 0, (byte)0, null, 0);
+				}
+			}
+		});
+	}
+
+	@Override
+	public long size() {
+		long[] size = {0};
+		forEach(entry -> ++size[0]);
+		return size[0];
+	}
+
+	@Override
+	public void forEach(Consumer<Entry> action) {
+		long currentTime = System.currentTimeMillis();
+		byte[] slot = new byte[SLOT_SIZE];
+		for (int index = 0; index < slotCount; index++) {
+			int offset = HEADER_SIZE + index * SLOT_SIZE;
+			if (buffer.getShort(offset + 16) != 0 && readSlot(offset, slot)) {
+				int nameLength = getNameLength(slot);
+				if (nameLength > 0 && nameLength <= MAXIMUM_NAME_LENGTH) {
+					Entry entry = toEntry(slot, new String(slot, SLOT_DATA_OFFSET, nameLength, StandardCharsets.UTF_8));
+					if (entry != null && !entry.isExpired(currentTime)) {
+						action.accept(entry);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public long getDefaultTimeToLive() {
+		return defaultTimeToLive;
+	}
+
+	@Override
+	public long getNegativeTimeToLive() {
+		return negativeTimeToLive;
+	}
+
+	//The mapping is released by the garbage collector
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private int getSlotOffset(int hash, int probe) {
+		return HEADER_SIZE + (int)(((hash & 0x7FFFFFFFL) + probe) % slotCount) * SLOT_SIZE;
+	}
+
+	private void write(Runnable writer) {
+		writeLock.lock();
+		try {
+			FileLock fileLock = channel.lock(0, HEADER_SIZE, false);
+			try {
+				writer.run();
+			} finally {
+				fileLock.release();
+			}
+		} catch (IOException exc) {
+			Driver.throwException(exc);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	//The sequence number is odd while the slot is being written: the store fence keeps the writes of the content
+	//after the one of the odd number and the release store of the even number keeps them before it. The odd
+	//number is normalized so that a slot left odd by a writer that died in the middle heals on the next write
+	private void writeSlot(int offset, int hash, long expirationTime, int nameLength, byte addressCount, byte[] data, int length) {
+		int sequence = getSequence(offset) | 1;
+		setSequence(offset, sequence);
+		storeFence();
+		buffer.putInt(offset + 4, hash);
+		buffer.putLong(offset + 8, expirationTime);
+		buffer.putShort(offset + 16, (short)nameLength);
+		buffer.put(offset + 18, addressCount);
+		if (length > SLOT_DATA_OFFSET) {
+			slotView(offset + SLOT_DATA_OFFSET).put(data, SLOT_DATA_OFFSET, length - SLOT_DATA_OFFSET);
+		}
+		setSequence(offset, sequence + 1);
+	}
+
+	private void copySlot(int offset, byte[] slot) {
+		slotView(offset).get(slot);
+	}
+
+	//The absolute bulk methods are not available before JDK 13 and the covariant overrides of JDK 9 are
+	//not available on JDK 8: the view is built through the supertypes
+	private ByteBuffer slotView(int offset) {
+		ByteBuffer view = ((ByteBuffer)buffer).duplicate();
+		((Buffer)view).position(offset);
+		return view;
+	}
+
+	//The load fence keeps the reads of the content before the second read of the sequence number
+	private boolean readSlot(int offset, byte[] slot) {
+		for (int attempt = 0; attempt < MAXIMUM_READ_ATTEMPTS; attempt++) {
+			int sequence = getSequence(offset);
+			if ((sequence & 1) == 0) {
+				copySlot(offset, slot);
+				loadFence();
+				if (getSequence(offset) == sequence) {
+					return true;
+				}
+			}
+			Thread.yield();
+		}
+		//A slot that is constantly rewritten is treated as missing
+		return false;
+	}
+
+	private int getSequence(int offset) {
+		try {
+			return (int)getIntVolatileMethodHandle.invokeExact((Object)null, address + offset);
+		} catch (Throwable exc) {
+			return Driver.throwException(exc);
+		}
+	}
+
+	private void setSequence(int offset, int sequence) {
+		try {
+			putOrderedIntMethodHandle.invokeExact((Object)null, address + offset, sequence);
+		} catch (Throwable exc) {
+			Driver.throwException(exc);
+		}
+	}
+
+	private static void loadFence() {
+		try {
+			loadFenceMethodHandle.invokeExact();
+		} catch (Throwable exc) {
+			Driver.throwException(exc);
+		}
+	}
+
+	private static void storeFence() {
+		try {
+			storeFenceMethodHandle.invokeExact();
+		} catch (Throwable exc) {
+			Driver.throwException(exc);
+		}
+	}
+
+	private boolean matches(byte[] slot, int hash, byte[] name) {
+		if (getHash(slot) != hash || getNameLength(slot) != name.length) {
+			return false;
+		}
+		for (int index = 0; index < name.length; index++) {
+			if (slot[SLOT_DATA_OFFSET + index] != name[index]) {
+				return false;
+			}
+		}
+		return name.length > 0;
+	}
+
+	private Entry toEntry(byte[] slot, String hostName) {
+		int position = SLOT_DATA_OFFSET + getNameLength(slot);
+		int addressCount = slot[18] & 0xFF;
+		List<InetAddress> addresses = new ArrayList<>(addressCount);
+		try {
+			for (int index = 0; index < addressCount; index++) {
+				int length = slot[position++];
+				addresses.add(InetAddress.getByAddress(hostName, Arrays.copyOfRange(slot, position, position + length)));
+				position += length;
+			}
+		} catch (IOException | RuntimeException exc) {
+			//The slot has been written by an incompatible process
+			return null;
+		}
+		return new Entry(hostName, addresses.isEmpty() ? Collections.emptyList() : addresses, getExpirationTime(slot));
+	}
+
+	private static int getHash(byte[] slot) {
+		return ((slot[4] & 0xFF) << 24) | ((slot[5] & 0xFF) << 16) | ((slot[6] & 0xFF) << 8) | (slot[7] & 0xFF);
+	}
+
+	private static long getExpirationTime(byte[] slot) {
+		long expirationTime = 0;
+		for (int index = 8; index < 16; index++) {
+			expirationTime = (expirationTime << 8) | (slot[index] & 0xFF);
+		}
+		return expirationTime;
+	}
+
+	private static int getNameLength(byte[] slot) {
+		return ((slot[16] & 0xFF) << 8) | (slot[17] & 0xFF);
+	}
+
+}
@@ -33,6 +33,7 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -100,6 +101,7 @@ public class MappedHostResolver implements HostResolver {
 		Map<String, String> hostAliases = new LinkedHashMap<>(this.hostAliases);
 		hostAliases.put(hostname, iP);
 		this.hostAliases = hostAliases;
+		clearCache(Collections.singletonList(hostname));
 		return this;
 	}
 
@@ -107,43 +109,48 @@ public class MappedHostResolver implements HostResolver {
 		Map<String, String> hostAliases = new LinkedHashMap<>(this.hostAliases);
 		hostAliases.remove(hostname);
 		this.hostAliases = hostAliases;
+		clearCache(Collections.singletonList(hostname));
 		return this;
 	}
 
 	public synchronized MappedHostResolver removeHostForIP(String iP) {
 		Map<String, String> hostAliases = new LinkedHashMap<>(this.hostAliases);
+		Collection<String> removedHostNames = new ArrayList<>();
 		Iterator<Map.Entry<String, String>> hostAliasesIterator = hostAliases.entrySet().iterator();
 		while (hostAliasesIterator.hasNext()) {
 			Map.Entry<String, String> host = hostAliasesIterator.next();
 			if (host.getValue().equals(iP)) {
+				removedHostNames.add(host.getKey());
 				hostAliasesIterator.remove();
 			}
 		}
 		this.hostAliases = hostAliases;
+		clearCache(removedHostNames);
 		return this;
 	}
 
+	//Invalidates the cache entries of the modified host names even when this resolver is not installed directly,
+	//since it could be wrapped by a composite resolver or be used by a scope
+	protected void clearCache(Collection<String> hostNames) {
+		HostResolutionRequestInterceptor.INSTANCE.clearCache(hostNames);
+	}
+
 	@Override
 	public boolean isReady(HostResolutionRequestInterceptor hostResolverService) {
 		return HostResolver.super.isReady(hostResolverService) && obtainsResponseForMappedHost();
 	}
 
-	protected synchronized boolean obtainsResponseForMappedHost() {
-		String hostNameForTest = null;
-		if (hostAliases.isEmpty()) {
-			putHost(hostNameForTest = UUID.randomUUID().toString(), "127.0.0.1");
-		}
+	//Verifies the resolution of a single probe entry instead of resolving every mapped host
+	protected boolean obtainsResponseForMappedHost() {
+		String hostNameForTest = "probe-" + UUID.randomUUID().toString() + ".burningwave.invalid";
+		putHost(hostNameForTest, "127.0.0.1");
 		try {
-			for (String hostname : hostAliases.keySet()) {
-				InetAddress.getByName(hostname);
-			}
+			InetAddress.getByName(hostNameForTest);
 			return true;
 		} catch (UnknownHostException exc) {
 			return false;
 		} finally {
-			if (hostNameForTest != null) {
-				removeHost(hostNameForTest);
-			}
+			removeHost(hostNameForTest);
 		}
 	}
 
@@ -0,0 +1,188 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Limits the queries in flight: the exceeding ones wait in a bounded queue and, when also the queue is full,
+//fail immediately. When the minimum limit is lower than the maximum one the limit adapts with the AIMD
+//algorithm: it grows by one every limit successful queries and it is reduced by a tenth on every failure
+public class QueryConcurrencyLimiter {
+	private static final double BACKOFF_RATIO = 0.9;
+
+	private final ReentrantLock lock;
+	private final Condition available;
+	private final int minLimit;
+	private final int maxLimit;
+	private final int maxQueueDepth;
+	private final LongAdder rejectedQueries;
+	private final LongAdder timedOutQueries;
+	private double limit;
+	private int inFlight;
+	private int queueDepth;
+	private int peakQueueDepth;
+
+	public QueryConcurrencyLimiter(int limit, int maxQueueDepth) {
+		this(limit, limit, maxQueueDepth);
+	}
+
+	public QueryConcurrencyLimiter(int minLimit, int maxLimit, int maxQueueDepth) {
+		if (minLimit < 1 || maxLimit < minLimit || maxQueueDepth < 0) {
+			throw new IllegalArgumentException(
+				Strings.compile("Invalid limits: {}, {}, {}", minLimit, maxLimit, maxQueueDepth)
+			);
+		}
+		this.lock = new ReentrantLock(true);
+		this.available = lock.newCondition();
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.maxQueueDepth = maxQueueDepth;
+		this.rejectedQueries = new LongAdder();
+		this.timedOutQueries = new LongAdder();
+		this.limit = maxLimit;
+	}
+
+	//Waits at most timeout milliseconds for a free slot: as for the timeout of the resolvers and of the sockets,
+	//a timeout of 0 means no limit
+	public void acquire(long timeout) throws UnknownHostException {
+		lock.lock();
+		try {
+			if (inFlight < (int)limit && queueDepth == 0) {
+				++inFlight;
+				return;
+			}
+			if (queueDepth >= maxQueueDepth) {
+				rejectedQueries.increment();
+				throw new UnknownHostException(
+					Strings.compile("Query rejected: {} queries in flight and {} queued", inFlight, queueDepth)
+				);
+			}
+			peakQueueDepth = Math.max(peakQueueDepth, ++queueDepth);
+			try {
+				long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+				while (inFlight >= (int)limit) {
+					if (timeout == 0) {
+						available.await();
+					} else if (remainingNanos > 0) {
+						remainingNanos = available.awaitNanos(remainingNanos);
+					} else {
+						timedOutQueries.increment();
+						throw new UnknownHostException(Strings.compile("Query timed out after waiting {} ms in queue", timeout));
+					}
+				}
+				++inFlight;
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				throw new UnknownHostException("Interrupted while waiting in queue");
+			} finally {
+				--queueDepth;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void release(boolean succeeded) {
+		lock.lock();
+		try {
+			--inFlight;
+			if (minLimit < maxLimit) {
+				limit = succeeded ?
+					Math.min(limit + 1 / limit, maxLimit) :
+					Math.max(limit * BACKOFF_RATIO, minLimit);
+			}
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int)limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getQueueDepth() {
+		lock.lock();
+		try {
+			return queueDepth;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getPeakQueueDepth() {
+		lock.lock();
+		try {
+			return peakQueueDepth;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	public long getRejectedQueries() {
+		return rejectedQueries.sum();
+	}
+
+	public long getTimedOutQueries() {
+		return timedOutQueries.sum();
+	}
+
+	@Override
+	public String toString() {
+		return Strings.compile(
+			"limit: {}, in flight: {}, queue depth: {} (peak: {}), rejected: {}, timed out in queue: {}",
+			getLimit(), getInFlight(), getQueueDepth(), getPeakQueueDepth(), getRejectedQueries(), getTimedOutQueries()
+		);
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ServiceRecord {
+	private final int priority;
+	private final int weight;
+	private final int port;
+	private final String target;
+	private final long timeToLive;
+
+	public ServiceRecord(int priority, int weight, int port, String target, long timeToLive) {
+		this.priority = priority;
+		this.weight = weight;
+		this.port = port;
+		this.target = target;
+		this.timeToLive = timeToLive;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public int getWeight() {
+		return weight;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public String getTarget() {
+		return target;
+	}
+
+	//Milliseconds
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	//Orders the records as described by RFC 2782: the groups of records with the same priority are ordered
+	//by ascending priority and inside each group the records are picked randomly in proportion to their weight
+	public static List<ServiceRecord> order(Collection<ServiceRecord> records) {
+		TreeMap<Integer, List<ServiceRecord>> recordsForPriority = new TreeMap<>();
+		for (ServiceRecord record : records) {
+			recordsForPriority.computeIfAbsent(record.priority, priority -> new ArrayList<>()).add(record);
+		}
+		List<ServiceRecord> orderedRecords = new ArrayList<>(records.size());
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (List<ServiceRecord> group : recordsForPriority.values()) {
+			//The records with weight 0 are placed first so that they have a very small chance of being picked
+			group.sort(Comparator.comparingInt(record -> record.weight > 0 ? 1 : 0));
+			while (!group.isEmpty()) {
+				int weightSum = 0;
+				for (ServiceRecord record : group) {
+					weightSum += record.weight;
+				}
+				int pick = random.nextInt(weightSum + 1);
+				int runningSum = 0;
+				for (int i = 0; i < group.size(); i++) {
+					runningSum += group.get(i).weight;
+					if (runningSum >= pick) {
+						orderedRecords.add(group.remove(i));
+						break;
+					}
+				}
+			}
+		}
+		return orderedRecords;
+	}
+
+	//Returns the record the client should contact first or null if there are none
+	public static ServiceRecord select(Collection<ServiceRecord> records) {
+		if (records.isEmpty()) {
+			return null;
+		}
+		int lowestPriority = Integer.MAX_VALUE;
+		for (ServiceRecord record : records) {
+			lowestPriority = Math.min(lowestPriority, record.priority);
+		}
+		List<ServiceRecord> group = new ArrayList<>();
+		for (ServiceRecord record : records) {
+			if (record.priority == lowestPriority) {
+				group.add(record);
+			}
+		}
+		return order(group).get(0);
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof ServiceRecord)) {
+			return false;
+		}
+		ServiceRecord record = (ServiceRecord)object;
+		return priority == record.priority && weight == record.weight && port == record.port &&
+			Objects.equals(target, record.target);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(priority, weight, port, target);
+	}
+
+	@Override
+	public String toString() {
+		return priority + " " + weight + " " + port + " " + target;
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.burningwave.core.function.ThrowingFunction;
+
+//Sends every request only to the resolvers of the longest domain suffix that matches the host name: the
+//suffixes are stored in a trie whose levels are the labels of the domains from right to left. The reverse
+//lookups are routed by the name of the PTR record (for example 10.in-addr.arpa). The requests that match
+//no suffix are sent to the default resolvers
+public class SuffixRoutingHostResolver implements HostResolver {
+	private final Node root;
+
+	public SuffixRoutingHostResolver(HostResolver... defaultResolvers) {
+		root = new Node();
+		root.resolvers = checkResolvers(defaultResolvers);
+	}
+
+	//The suffix can be written as "corp", ".corp" or "*.corp" and matches also the domain itself
+	public SuffixRoutingHostResolver route(String domainSuffix, HostResolver... resolvers) {
+		Collection<HostResolver> resolverList = checkResolvers(resolvers);
+		if (resolverList.isEmpty()) {
+			throw new IllegalArgumentException("Resolvers are required");
+		}
+		String[] labels = toLabels(normalize(domainSuffix));
+		synchronized (root) {
+			Node node = root;
+			for (int i = labels.length - 1; i >= 0; i--) {
+				node = node.children.computeIfAbsent(labels[i], label -> new Node());
+			}
+			node.resolvers = resolverList;
+		}
+		return this;
+	}
+
+	public SuffixRoutingHostResolver removeRoute(String domainSuffix) {
+		String[] labels = toLabels(normalize(domainSuffix));
+		synchronized (root) {
+			Node node = root;
+			for (int i = labels.length - 1; i >= 0 && node != null; i--) {
+				node = node.children.get(labels[i]);
+			}
+			if (node != null && node != root) {
+				node.resolvers = null;
+			}
+		}
+		return this;
+	}
+
+	public Collection<HostResolver> getResolvers(String hostName) {
+		Node node = root;
+		Collection<HostResolver> resolvers = root.resolvers;
+		int end = hostName.endsWith(".") ? hostName.length() - 1 : hostName.length();
+		while (end > 0) {
+			int start = hostName.lastIndexOf('.', end - 1) + 1;
+			node = node.children.get(hostName.substring(start, end).toLowerCase());
+			if (node == null) {
+				break;
+			}
+			if (node.resolvers != null) {
+				resolvers = node.resolvers;
+			}
+			end = start - 1;
+		}
+		return resolvers;
+	}
+
+	@Override
+	public Collection<InetAddress> getAllAddressesForHostName(Map<String, Object> argumentMap) {
+		String hostName = (String)getMethodArguments(argumentMap)[0];
+		return resolve(
+			getResolvers(hostName),
+			resolver -> resolver.checkAndGetAllAddressesForHostName(argumentMap)
+		);
+	}
+
+	@Override
+	public Collection<String> getAllHostNamesForHostAddress(Map<String, Object> argumentMap) {
+		byte[] address = (byte[])getMethodArguments(argumentMap)[0];
+		return resolve(
+			getResolvers(DNSClientHostResolver.iPAddressAsBytesToReversedString(address)),
+			resolver -> resolver.checkAndGetAllHostNamesForHostAddress(argumentMap)
+		);
+	}
+
+	@Override
+	public Object handle(Method method, Object... arguments) throws Throwable {
+		for (HostResolver resolver : root.resolvers) {
+			Object toRet = resolver.handle(method, arguments);
+			if (toRet != null) {
+				return toRet;
+			}
+		}
+		return null;
+	}
+
+	private <T> Collection<T> resolve(
+		Collection<HostResolver> resolvers,
+		ThrowingFunction<HostResolver, Collection<T>, Throwable> resolution
+	) {
+		Collection<T> results = new ArrayList<>();
+		UnknownHostException failure = null;
+		for (HostResolver resolver : resolvers) {
+			try {
+				results.addAll(resolution.apply(resolver));
+			} catch (HostNotFoundException exc) {
+
+			} catch (UnknownHostException exc) {
+				failure = exc;
+			} catch (Throwable exc) {
+				Driver.throwException(exc);
+			}
+		}
+		//Without results the failure, if any, is rethrown so that the answer is not taken as a negative one
+		if (results.isEmpty() && failure != null) {
+			Driver.throwException(failure);
+		}
+		return results;
+	}
+
+	private Collection<HostResolver> checkResolvers(HostResolver[] resolvers) {
+		Collection<HostResolver> resolverList = new ArrayList<>();
+		if (resolvers != null) {
+			for (int index = 0; index < resolvers.length; index++) {
+				if (resolvers[index] == null) {
+					throw new IllegalArgumentException(Strings.compile("Resolver at index [{}] is null", index));
+				}
+				resolverList.add(resolvers[index]);
+			}
+		}
+		return Collections.unmodifiableCollection(resolverList);
+	}
+
+	private String normalize(String domainSuffix) {
+		if (domainSuffix == null) {
+			throw new IllegalArgumentException("Domain suffix is required");
+		}
+		String normalizedDomainSuffix = domainSuffix.trim().toLowerCase();
+		if (normalizedDomainSuffix.startsWith("*.")) {
+			normalizedDomainSuffix = normalizedDomainSuffix.substring(2);
+		} else if (normalizedDomainSuffix.startsWith(".")) {
+			normalizedDomainSuffix = normalizedDomainSuffix.substring(1);
+		}
+		if (normalizedDomainSuffix.endsWith(".")) {
+			normalizedDomainSuffix = normalizedDomainSuffix.substring(0, normalizedDomainSuffix.length() - 1);
+		}
+		if (normalizedDomainSuffix.isEmpty()) {
+			throw new IllegalArgumentException(Strings.compile("Invalid domain suffix: {}", domainSuffix));
+		}
+		return normalizedDomainSuffix;
+	}
+
+	private String[] toLabels(String domain) {
+		return domain.split("\\.");
+	}
+
+	private static class Node {
+		private final Map<String, Node> children;
+		private volatile Collection<HostResolver> resolvers;
+
+		private Node() {
+			children = new ConcurrentHashMap<>();
+		}
+	}
+
+}
@@ -0,0 +1,388 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Strings;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+//A size bounded cache with the W-TinyLFU policy: the new entries go in a small LRU window and,
+//when evicted from it, they are admitted in the segmented LRU main space only if their
+//estimated access frequency is higher than the one of the main space victim
+public class TinyLFUHostResolutionCache implements HostResolutionCache {
+	public static final long DEFAULT_TIME_TO_LIVE = 30000;
+	public static final long DEFAULT_NEGATIVE_TIME_TO_LIVE = 10000;
+
+	private static final int WINDOW = 0;
+	private static final int PROBATION = 1;
+	private static final int PROTECTED = 2;
+
+	private final Map<String, Node> data;
+	private final ReentrantLock evictionLock;
+	private final FrequencySketch sketch;
+	private final Queue window;
+	private final Queue probation;
+	private final Queue protectedQueue;
+	private final int maximumSize;
+	private final int maximumWindowSize;
+	private final int maximumProtectedSize;
+	private final long defaultTimeToLive;
+	private final long negativeTimeToLive;
+
+	public TinyLFUHostResolutionCache(int maximumSize) {
+		this(maximumSize, DEFAULT_TIME_TO_LIVE, DEFAULT_NEGATIVE_TIME_TO_LIVE);
+	}
+
+	public TinyLFUHostResolutionCache(int maximumSize, long defaultTimeToLive, long negativeTimeToLive) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException(Strings.compile("Invalid maximum size: {}", maximumSize));
+		}
+		if (defaultTimeToLive < 0 || negativeTimeToLive < 0) {
+			throw new IllegalArgumentException(
+				Strings.compile("Invalid time to live: {}, {}", defaultTimeToLive, negativeTimeToLive)
+			);
+		}
+		this.maximumSize = maximumSize;
+		this.maximumWindowSize = Math.max(1, maximumSize / 100);
+		this.maximumProtectedSize = (int)((maximumSize - maximumWindowSize) * 0.8);
+		this.defaultTimeToLive = defaultTimeToLive;
+		this.negativeTimeToLive = negativeTimeToLive;
+		this.data = new ConcurrentHashMap<>();
+		this.evictionLock = new ReentrantLock();
+		this.sketch = new FrequencySketch(maximumSize);
+		this.window = new Queue();
+		this.probation = new Queue();
+		this.protectedQueue = new Queue();
+	}
+
+	@Override
+	public Entry get(String hostName) {
+		Node node = data.get(hostName);
+		if (node == null) {
+			//The frequency of the misses is recorded by the put that follows the resolution
+			return null;
+		}
+		Entry entry = node.entry;
+		if (entry.isExpired(System.currentTimeMillis())) {
+			remove(hostName, node);
+			return null;
+		}
+		//The access recording is lossy under contention so that the readers never block
+		if (evictionLock.tryLock()) {
+			try {
+				onAccess(node);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+		return entry;
+	}
+
+	@Override
+	public void put(String hostName, Collection<InetAddress> addresses, long timeToLive) {
+		if (timeToLive <= 0) {
+			return;
+		}
+		Entry entry = new Entry(hostName, new ArrayList<>(addresses), System.currentTimeMillis() + timeToLive);
+		evictionLock.lock();
+		try {
+			Node node = data.get(hostName);
+			if (node != null) {
+				node.entry = entry;
+				onAccess(node);
+				return;
+			}
+			sketch.increment(hostName);
+			node = new Node(hostName, entry);
+			data.put(hostName, node);
+			window.addFirst(node, WINDOW);
+			if (window.size > maximumWindowSize) {
+				admit(window.removeLast());
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public void remove(Collection<String> hostNames) {
+		for (String hostName : hostNames) {
+			Node node = data.get(hostName);
+			if (node != null) {
+				remove(hostName, node);
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		evictionLock.lock();
+		try {
+			data.clear();
+			window.clear();
+			probation.clear();
+			protectedQueue.clear();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public long size() {
+		return data.size();
+	}
+
+	@Override
+	public void forEach(Consumer<Entry> action) {
+		long currentTime = System.currentTimeMillis();
+		for (Node node : data.values()) {
+			Entry entry = node.entry;
+			if (!entry.isExpired(currentTime)) {
+				action.accept(entry);
+			}
+		}
+	}
+
+	@Override
+	public long getDefaultTimeToLive() {
+		return defaultTimeToLive;
+	}
+
+	@Override
+	public long getNegativeTimeToLive() {
+		return negativeTimeToLive;
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	private void remove(String hostName, Node node) {
+		evictionLock.lock();
+		try {
+			if (data.remove(hostName, node)) {
+				queueOf(node).remove(node);
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private void onAccess(Node node) {
+		if (node.queue < 0) {
+			return;
+		}
+		sketch.increment(node.hostName);
+		if (node.queue == WINDOW) {
+			window.moveToFirst(node);
+		} else if (node.queue == PROBATION) {
+			probation.remove(node);
+			protectedQueue.addFirst(node, PROTECTED);
+			if (protectedQueue.size > maximumProtectedSize) {
+				probation.addFirst(protectedQueue.removeLast(), PROBATION);
+			}
+		} else {
+			protectedQueue.moveToFirst(node);
+		}
+	}
+
+	private void admit(Node candidate) {
+		if (probation.size + protectedQueue.size < maximumSize - maximumWindowSize) {
+			probation.addFirst(candidate, PROBATION);
+			return;
+		}
+		Queue victimQueue = probation.size > 0 ? probation : protectedQueue;
+		Node victim = victimQueue.last();
+		if (victim == null || sketch.frequency(candidate.hostName) > sketch.frequency(victim.hostName)) {
+			if (victim != null) {
+				victimQueue.remove(victim);
+				data.remove(victim.hostName, victim);
+			}
+			probation.addFirst(candidate, PROBATION);
+		} else {
+			candidate.queue = -1;
+			data.remove(candidate.hostName, candidate);
+		}
+	}
+
+	private Queue queueOf(Node node) {
+		if (node.queue == WINDOW) {
+			return window;
+		} else if (node.queue == PROBATION) {
+			return probation;
+		}
+		return protectedQueue;
+	}
+
+	private static class Node {
+		private final String hostName;
+		private volatile Entry entry;
+		private Node previous;
+		private Node next;
+		private int queue;
+
+		private Node(String hostName, Entry entry) {
+			this.hostName = hostName;
+			this.entry = entry;
+			this.queue = -1;
+		}
+	}
+
+	private static class Queue {
+		private final Node head;
+		private int size;
+
+		private Queue() {
+			head = new Node(null, null);
+			head.previous = head;
+			head.next = head;
+		}
+
+		private void addFirst(Node node, int queue) {
+			node.queue = queue;
+			node.previous = head;
+			node.next = head.next;
+			head.next.previous = node;
+			head.next = node;
+			++size;
+		}
+
+		private Node last() {
+			return head.previous != head ? head.previous : null;
+		}
+
+		private Node removeLast() {
+			Node node = last();
+			if (node != null) {
+				remove(node);
+			}
+			return node;
+		}
+
+		private void remove(Node node) {
+			if (node.queue < 0) {
+				return;
+			}
+			node.previous.next = node.next;
+			node.next.previous = node.previous;
+			node.previous = null;
+			node.next = null;
+			node.queue = -1;
+			--size;
+		}
+
+		private void moveToFirst(Node node) {
+			int queue = node.queue;
+			remove(node);
+			addFirst(node, queue);
+		}
+
+		private void clear() {
+			for (Node node = head.next; node != head;) {
+				Node next = node.next;
+				node.previous = null;
+				node.next = null;
+				node.queue = -1;
+				node = next;
+			}
+			head.previous = head;
+			head.next = head;
+			size = 0;
+		}
+	}
+
+	//A count-min sketch with four rows of 4 bits counters that are halved after
+	//a sample of ten times the maximum size of the cache
+	private static class FrequencySketch {
+		private static final int[] SEEDS = {0x97cb3127, 0xb3c2d0a5, 0xc7f63a3d, 0x8c7f5a1b};
+		private static final int MAXIMUM_FREQUENCY = 15;
+
+		private final byte[][] table;
+		private final int mask;
+		private final int sampleSize;
+		private int additions;
+
+		private FrequencySketch(int maximumSize) {
+			int width = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+			this.table = new byte[SEEDS.length][width];
+			this.mask = width - 1;
+			this.sampleSize = maximumSize * 10;
+		}
+
+		private int frequency(String key) {
+			int hash = spread(key.hashCode());
+			int frequency = MAXIMUM_FREQUENCY;
+			for (int i = 0; i < SEEDS.length; ++i) {
+				frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+			}
+			return frequency;
+		}
+
+		private void increment(String key) {
+			int hash = spread(key.hashCode());
+			boolean added = false;
+			for (int i = 0; i < SEEDS.length; ++i) {
+				int index = indexOf(hash, i);
+				if (table[i][index] < MAXIMUM_FREQUENCY) {
+					++table[i][index];
+					added = true;
+				}
+			}
+			if (added && ++additions >= sampleSize) {
+				reset();
+			}
+		}
+
+		private void reset() {
+			for (byte[] row : table) {
+				for (int i = 0; i < row.length; ++i) {
+					row[i] >>>= 1;
+				}
+			}
+			additions >>>= 1;
+		}
+
+		private int indexOf(int hash, int row) {
+			int index = (hash + SEEDS[row]) * SEEDS[row];
+			return (index ^ (index >>> 16)) & mask;
+		}
+
+		private static int spread(int hash) {
+			hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+			return (hash >>> 16) ^ hash;
+		}
+	}
+
+}
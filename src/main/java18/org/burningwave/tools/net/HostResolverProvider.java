@@ -0,0 +1,130 @@
+/*
+ * This file is part of Burningwave Tools.
+ *
+ * Author: Roberto Gentili
+ *
+ * Hosted at: https://github.com/burningwave/tools
+ *
+ * --
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Roberto Gentili
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without
+ * limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT
+ * LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO
+ * EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.burningwave.tools.net;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Driver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolverProvider;
+import java.util.stream.Stream;
+
+import org.burningwave.core.function.ThrowingFunction;
+
+//Plugs the interceptor in through the resolver SPI of JDK 18 and later: the JDK calls the resolver directly and
+//the installation of the interceptor only binds its handlers, without replacing fields with proxies. While the
+//interceptor is not installed, and for the lookups made by the resolvers of the chain, the builtin resolver is used
+public class HostResolverProvider extends InetAddressResolverProvider {
+
+	@Override
+	public InetAddressResolver get(Configuration configuration) {
+		return new Resolver(configuration.builtinResolver());
+	}
+
+	@Override
+	public String name() {
+		return "Burningwave host resolver";
+	}
+
+	private static class Resolver implements InetAddressResolver, BindableNameService {
+		private final InetAddressResolver builtinResolver;
+		private final ThreadLocal<Boolean> resolving;
+		private volatile Handlers handlers;
+
+		private Resolver(InetAddressResolver builtinResolver) {
+			this.builtinResolver = builtinResolver;
+			this.resolving = new ThreadLocal<>();
+		}
+
+		@Override
+		public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
+			Handlers handlers = this.handlers;
+			if (handlers == null || resolving.get() != null) {
+				return builtinResolver.lookupByName(host, lookupPolicy);
+			}
+			return (Stream<InetAddress>)handle(handlers.getAllAddressesForHostNameHandler, host, lookupPolicy);
+		}
+
+		@Override
+		public String lookupByAddress(byte[] address) throws UnknownHostException {
+			Handlers handlers = this.handlers;
+			if (handlers == null || resolving.get() != null) {
+				return builtinResolver.lookupByAddress(address);
+			}
+			return (String)handle(handlers.getAllHostNamesForHostAddressHandler, address);
+		}
+
+		private Object handle(ThrowingFunction<Object[], Object, Throwable> handler, Object... arguments) throws UnknownHostException {
+			resolving.set(Boolean.TRUE);
+			try {
+				return handler.apply(arguments);
+			} catch (UnknownHostException exc) {
+				throw exc;
+			} catch (Throwable exc) {
+				return Driver.throwException(exc);
+			} finally {
+				resolving.remove();
+			}
+		}
+
+		@Override
+		public Object getBuiltinNameService() {
+			return builtinResolver;
+		}
+
+		@Override
+		public void bind(
+			ThrowingFunction<Object[], Object, Throwable> getAllAddressesForHostNameHandler,
+			ThrowingFunction<Object[], Object, Throwable> getAllHostNamesForHostAddressHandler
+		) {
+			handlers = new Handlers(getAllAddressesForHostNameHandler, getAllHostNamesForHostAddressHandler);
+		}
+
+		@Override
+		public void unbind() {
+			handlers = null;
+		}
+
+	}
+
+	private static class Handlers {
+		private final ThrowingFunction<Object[], Object, Throwable> getAllAddressesForHostNameHandler;
+		private final ThrowingFunction<Object[], Object, Throwable> getAllHostNamesForHostAddressHandler;
+
+		private Handlers(
+			ThrowingFunction<Object[], Object, Throwable> getAllAddressesForHostNameHandler,
+			ThrowingFunction<Object[], Object, Throwable> getAllHostNamesForHostAddressHandler
+		) {
+			this.getAllAddressesForHostNameHandler = getAllAddressesForHostNameHandler;
+			this.getAllHostNamesForHostAddressHandler = getAllHostNamesForHostAddressHandler;
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+package org.burningwave.tools;
+
+import static org.burningwave.core.assembler.StaticComponentContainer.Methods;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.burningwave.tools.net.HostResolutionRequestInterceptor;
+import org.burningwave.tools.net.MappedHostResolver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+//Run with: mvn test -DskipTests=false -Dproject.test.includes=**/StressTestsSuite.java
+//The number of threads, the duration and the interval between two resolver swaps can be set with
+//-Dstress.threads, -Dstress.duration (seconds) and -Dstress.swap-interval (milliseconds)
+@Tag("Heavy")
+public class HostResolutionStressTest extends BaseTest {
+	private static final int HOST_COUNT = 64;
+	private static final int MAX_SAMPLES_PER_THREAD = 4096;
+
+	@Test
+	public void resolveWhileSwappingResolvers() {
+		testDoesNotThrow(() -> {
+			int threadCount = Integer.getInteger("stress.threads", 1000);
+			long duration = TimeUnit.SECONDS.toNanos(Long.getLong("stress.duration", 10L));
+			long swapInterval = Long.getLong("stress.swap-interval", 1L);
+			Map<String, String> hostAliases = new LinkedHashMap<>();
+			for (int i = 0; i < HOST_COUNT; i++) {
+				hostAliases.put("host-" + i + ".stress", "10.1." + (i / 256) + "." + (i % 256));
+			}
+			MappedHostResolver[] resolvers = {
+				new MappedHostResolver(hostAliases),
+				new MappedHostResolver(hostAliases)
+			};
+			HostResolutionRequestInterceptor.INSTANCE.install(resolvers[0]);
+			ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+			boolean contentionMonitoringSupported = threadMXBean.isThreadContentionMonitoringSupported();
+			if (contentionMonitoringSupported) {
+				threadMXBean.setThreadContentionMonitoringEnabled(true);
+			}
+			ExecutorService executor = newExecutor(threadCount);
+			CountDownLatch startLatch = new CountDownLatch(1);
+			CountDownLatch endLatch = new CountDownLatch(threadCount);
+			ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+			ConcurrentLinkedQueue<Long> workerThreadIds = new ConcurrentLinkedQueue<>();
+			AtomicLong lookupCounter = new AtomicLong();
+			AtomicLong failureCounter = new AtomicLong();
+			AtomicLong swapCounter = new AtomicLong();
+			String[] hostNames = hostAliases.keySet().toArray(new String[0]);
+			for (int i = 0; i < threadCount; i++) {
+				int threadIndex = i;
+				executor.execute(() -> {
+					workerThreadIds.add(Thread.currentThread().getId());
+					long[] latencies = new long[MAX_SAMPLES_PER_THREAD];
+					int sampleCount = 0;
+					long lookups = 0;
+					try {
+						startLatch.await();
+						long endTime = System.nanoTime() + duration;
+						long startTime;
+						while ((startTime = System.nanoTime()) < endTime) {
+							try {
+								InetAddress.getAllByName(hostNames[(int)((threadIndex + lookups) % hostNames.length)]);
+							} catch (UnknownHostException exc) {
+								failureCounter.incrementAndGet();
+							}
+							long elapsed = System.nanoTime() - startTime;
+							//Reservoir sampling keeps the memory bounded whatever the duration
+							if (sampleCount < latencies.length) {
+								latencies[sampleCount++] = elapsed;
+							} else {
+								long index = ThreadLocalRandom.current().nextLong(lookups + 1);
+								if (index < latencies.length) {
+									latencies[(int)index] = elapsed;
+								}
+							}
+							lookups++;
+						}
+					} catch (InterruptedException exc) {
+						Thread.currentThread().interrupt();
+					} finally {
+						lookupCounter.addAndGet(lookups);
+						samples.add(Arrays.copyOf(latencies, sampleCount));
+						endLatch.countDown();
+					}
+				});
+			}
+			Thread swapper = new Thread(() -> {
+				try {
+					startLatch.await();
+				} catch (InterruptedException exc) {
+					return;
+				}
+				int index = 0;
+				try {
+					while (!endLatch.await(swapInterval, TimeUnit.MILLISECONDS)) {
+						HostResolutionRequestInterceptor.INSTANCE.install(resolvers[++index % 2]);
+						HostResolutionRequestInterceptor.INSTANCE.clearCache();
+						swapCounter.incrementAndGet();
+					}
+				} catch (InterruptedException exc) {
+					Thread.currentThread().interrupt();
+				}
+			}, "Resolver swapper");
+			swapper.setDaemon(true);
+			swapper.start();
+			long startTime = System.nanoTime();
+			startLatch.countDown();
+			endLatch.await();
+			long elapsed = System.nanoTime() - startTime;
+			swapper.join();
+			executor.shutdown();
+			long blockedCount = 0;
+			long blockedTime = 0;
+			if (contentionMonitoringSupported) {
+				for (Long threadId : workerThreadIds) {
+					ThreadInfo threadInfo = threadMXBean.getThreadInfo(threadId);
+					if (threadInfo != null) {
+						blockedCount += threadInfo.getBlockedCount();
+						blockedTime += Math.max(threadInfo.getBlockedTime(), 0);
+					}
+				}
+			}
+			long[] allLatencies = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+			logInfo(
+				"\n\tThreads: {} ({})" +
+				"\n\tLookups: {} in {} ms, throughput: {} lookups/s" +
+				"\n\tResolver swaps: {}, failures: {}" +
+				"\n\tLatency (us): p50 {}, p90 {}, p99 {}, p99.9 {}, max {}" +
+				"\n\tContention on worker threads: {} blocks, {} ms blocked",
+				threadCount, executor.getClass().getSimpleName(),
+				lookupCounter.get(), TimeUnit.NANOSECONDS.toMillis(elapsed), lookupCounter.get() * 1_000_000_000L / Math.max(elapsed, 1),
+				swapCounter.get(), failureCounter.get(),
+				percentile(allLatencies, 50) / 1000, percentile(allLatencies, 90) / 1000,
+				percentile(allLatencies, 99) / 1000, percentile(allLatencies, 99.9) / 1000,
+				allLatencies.length > 0 ? allLatencies[allLatencies.length - 1] / 1000 : 0,
+				contentionMonitoringSupported ? blockedCount : "n.a.", contentionMonitoringSupported ? blockedTime : "n.a."
+			);
+			HostResolutionRequestInterceptor.INSTANCE.uninstall();
+			assertTrue(lookupCounter.get() > 0);
+			assertTrue(failureCounter.get() == 0);
+		});
+	}
+
+	private ExecutorService newExecutor(int threadCount) {
+		try {
+			//Virtual threads are available from JDK 21
+			return Methods.invokeStatic(Executors.class, "newVirtualThreadPerTaskExecutor");
+		} catch (Throwable exc) {
+			return Executors.newFixedThreadPool(threadCount);
+		}
+	}
+
+	private long percentile(long[] sortedValues, double percentile) {
+		if (sortedValues.length == 0) {
+			return 0;
+		}
+		int index = (int)Math.ceil((percentile / 100) * sortedValues.length) - 1;
+		return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+	}
+
+}
@@ -1,28 +1,82 @@
 package org.burningwave.tools;
 
+import static org.burningwave.core.assembler.StaticComponentContainer.Fields;
+import static org.burningwave.core.assembler.StaticComponentContainer.JVMInfo;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.management.ObjectName;
 
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.burningwave.tools.net.AddressOrderingPolicy;
 import org.burningwave.tools.net.DNSClientHostResolver;
+import org.burningwave.tools.net.DNSClientHostResolverPool;
 import org.burningwave.tools.net.DefaultHostResolver;
+import org.burningwave.tools.net.EmbeddedDNSServer;
+import org.burningwave.tools.net.HostResolutionCache;
+import org.burningwave.tools.net.HostResolutionCacheSnapshot;
+import org.burningwave.tools.net.HostResolutionEvent;
+import org.burningwave.tools.net.HostResolutionExecutors;
+import org.burningwave.tools.net.HostResolutionRequest;
+import org.burningwave.tools.net.HostResolutionListener;
+import org.burningwave.tools.net.HostResolutionMetrics;
 import org.burningwave.tools.net.HostResolutionRequestInterceptor;
+import org.burningwave.tools.net.HostResolutionScope;
+import org.burningwave.tools.net.HostResolver;
 import org.burningwave.tools.net.IPAddressUtil;
+import org.burningwave.tools.net.LatencyFeedbackOrderingPolicy;
+import org.burningwave.tools.net.MappedFileHostResolutionCache;
 import org.burningwave.tools.net.MappedHostResolver;
+import org.burningwave.tools.net.QueryConcurrencyLimiter;
+import org.burningwave.tools.net.SuffixRoutingHostResolver;
+import org.burningwave.tools.net.ServiceRecord;
+import org.burningwave.tools.net.TinyLFUHostResolutionCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
 @TestMethodOrder(OrderAnnotation.class)
 public class HostsResolverServiceTest extends BaseTest {
+	static EmbeddedDNSServer dNSServer;
+
+	@BeforeAll
+	public static void startDNSServer() {
+		dNSServer = new EmbeddedDNSServer()
+			.putHost("hello.world.dns", "10.0.0.1", "::ffff:0a00:0002", "2001:db8::1")
+			.putHost("hello.world.tcp", "10.0.0.3")
+			.start();
+	}
+
+	@AfterAll
+	public static void stopDNSServer() {
+		dNSServer.close();
+	}
 
 	@Test
 	@Order(1)
@@ -34,7 +88,7 @@ public class HostsResolverServiceTest extends BaseTest {
 			hostNamesForIp.put("ip", "123.123.123.123");
 			hostNamesForIp.put("hostnames", Arrays.asList("hello.world.one", "hello.world.two"));
 			HostResolutionRequestInterceptor.INSTANCE.install(
-				new DNSClientHostResolver("208.67.222.222", 53),
+				new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()),
 				new MappedHostResolver(() -> hostAliases),
 				DefaultHostResolver.INSTANCE
 			);
@@ -48,7 +102,9 @@ public class HostsResolverServiceTest extends BaseTest {
 			inetAddress = InetAddress.getByName("localhost");
 			assertNotNull(inetAddress);
 			assertTrue("127.0.0.1".equals(inetAddress.getHostAddress()));
-			inetAddress = InetAddress.getByName("google.com");
+			inetAddress = InetAddress.getByName("hello.world.dns");
+			assertNotNull(inetAddress);
+			assertTrue("10.0.0.1".equals(inetAddress.getHostAddress()));
 		});
 	}
 
@@ -65,6 +121,8 @@ public class HostsResolverServiceTest extends BaseTest {
 	public void reset() {
 		testDoesNotThrow(() -> {
 			HostResolutionRequestInterceptor.INSTANCE.uninstall();
+			//With the resolver provider of JDK 18 and later the JDK cache is not flushed by the uninstallation
+			HostResolutionRequestInterceptor.INSTANCE.clearCache("hello.world.one");
 		});
 		testDoesThrow(
 			() -> {
@@ -72,6 +130,19 @@ public class HostsResolverServiceTest extends BaseTest {
 			},
 			UnknownHostException.class
 		);
+		//The interruption of the thread waiting for the readiness is propagated
+		testDoesThrow(
+			() -> {
+				Thread.currentThread().interrupt();
+				try {
+					HostResolutionRequestInterceptor.INSTANCE.install(DefaultHostResolver.INSTANCE);
+				} finally {
+					assertTrue(Thread.interrupted());
+					HostResolutionRequestInterceptor.INSTANCE.uninstall();
+				}
+			},
+			IllegalStateException.class
+		);
 	}
 
 	@Test
@@ -87,6 +158,8 @@ public class HostsResolverServiceTest extends BaseTest {
 				new MappedHostResolver(() -> hostAliases),
 				DefaultHostResolver.INSTANCE
 			);
+			//The negative answer cached after the uninstallation is evicted
+			HostResolutionRequestInterceptor.INSTANCE.clearCache("hello.world.one");
 			InetAddress inetAddress = InetAddress.getByName("hello.world.one");
 			assertNotNull(inetAddress);
 			assertTrue("123.123.123.123".equals(inetAddress.getHostAddress()));
@@ -98,4 +171,810 @@ public class HostsResolverServiceTest extends BaseTest {
 			assertTrue("127.0.0.1".equals(inetAddress.getHostAddress()));
 		});
 	}
+
+	@Test
+	@Order(5)
+	public void metricsTest() throws UnknownHostException {
+		testDoesNotThrow(() -> {
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(Collections.singletonMap("hello.metrics.one", "123.123.123.124"));
+			HostResolutionRequestInterceptor.INSTANCE.install(
+				mappedHostResolver,
+				DefaultHostResolver.INSTANCE
+			).enableMetrics();
+			try {
+				HostResolutionRequestInterceptor.INSTANCE.clearCache();
+				InetAddress.getByName("hello.metrics.one");
+				HostResolutionMetrics.Snapshot snapshot = HostResolutionRequestInterceptor.INSTANCE.getMetrics().snapshot();
+				assertTrue(snapshot.getForwardLookups().getHits() > 0);
+				assertTrue(snapshot.getResolver(mappedHostResolver).getForwardLookups().getHits() > 0);
+				assertTrue(snapshot.getForwardLookups().getLatency().getP99() > 0);
+				assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(HostResolutionMetrics.OBJECT_NAME)));
+				assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(HostResolutionMetrics.OBJECT_NAME), "ForwardLookups"));
+				//The metrics of the resolvers that are no longer installed are discarded
+				HostResolutionRequestInterceptor.INSTANCE.install(DefaultHostResolver.INSTANCE);
+				assertTrue(HostResolutionRequestInterceptor.INSTANCE.getMetrics().snapshot().getResolver(mappedHostResolver) == null);
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.disableMetrics();
+			}
+		});
+	}
+
+	@Test
+	@Order(6)
+	public void listenerTest() throws UnknownHostException {
+		testDoesNotThrow(() -> {
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(Collections.singletonMap("hello.listener.one", "123.123.123.125"));
+			List<HostResolutionEvent> events = new CopyOnWriteArrayList<>();
+			HostResolutionListener listener = events::add;
+			HostResolutionRequestInterceptor.INSTANCE.install(
+				mappedHostResolver,
+				DefaultHostResolver.INSTANCE
+			).addListener(listener);
+			try {
+				HostResolutionRequestInterceptor.INSTANCE.clearCache();
+				InetAddress.getByName("hello.listener.one");
+				//One event per lookup carries the outcomes of all the resolvers
+				List<HostResolutionEvent> lookupEvents = new ArrayList<>();
+				events.stream().filter(evt -> "hello.listener.one".equals(evt.getHostName())).forEach(lookupEvents::add);
+				assertTrue(lookupEvents.size() == 1);
+				HostResolutionEvent event = lookupEvents.get(0);
+				assertTrue(event.getOutcome() == HostResolutionEvent.Outcome.RESOLVED);
+				assertTrue(event.getAnsweringResolvers().contains(mappedHostResolver));
+				assertTrue(event.getResolverOutcomes().size() == 2);
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.removeListener(listener);
+			}
+		});
+	}
+
+	@Test
+	@Order(7)
+	public void dNSServerTest() {
+		testDoesNotThrow(() -> {
+			DNSClientHostResolver dNSClientHostResolver = new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort());
+			assertTrue(dNSClientHostResolver.resolveHostForName("hello.world.dns").size() == 3);
+			assertTrue(dNSClientHostResolver.resolveHostForAddress("10.0.0.1").contains("hello.world.dns"));
+			dNSServer.setTruncateResponses(true);
+			try {
+				long tCPQueryCount = dNSServer.getTCPQueryCount();
+				assertTrue("10.0.0.3".equals(dNSClientHostResolver.resolveHostForName("hello.world.tcp").iterator().next().getHostAddress()));
+				assertTrue(dNSServer.getTCPQueryCount() > tCPQueryCount);
+			} finally {
+				dNSServer.setTruncateResponses(false);
+			}
+		});
+		testDoesThrow(() -> {
+			dNSServer.setPacketLossProbability(1);
+			try {
+				new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()).setTimeout(200).resolveHostForName("hello.world.dns");
+			} finally {
+				dNSServer.setPacketLossProbability(0);
+			}
+		}, UnknownHostException.class);
+	}
+
+	@Test
+	@Order(8)
+	public void selectiveCacheInvalidationTest() {
+		testDoesNotThrow(() -> {
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.cache.one", "10.0.1.1").putHost("hello.cache.two", "10.0.1.2");
+			HostResolutionRequestInterceptor.INSTANCE.install(mappedHostResolver).enableMetrics();
+			try {
+				assertTrue("10.0.1.1".equals(InetAddress.getByName("hello.cache.one").getHostAddress()));
+				assertTrue("10.0.1.2".equals(InetAddress.getByName("hello.cache.two").getHostAddress()));
+				long forwardLookups = HostResolutionRequestInterceptor.INSTANCE.getMetrics().getForwardLookups().getCalls();
+				mappedHostResolver.putHost("hello.cache.one", "10.0.1.3");
+				assertTrue("10.0.1.3".equals(InetAddress.getByName("hello.cache.one").getHostAddress()));
+				assertTrue("10.0.1.2".equals(InetAddress.getByName("hello.cache.two").getHostAddress()));
+				//Only the modified host name has been resolved again
+				assertTrue(HostResolutionRequestInterceptor.INSTANCE.getMetrics().getForwardLookups().getCalls() == forwardLookups + 1);
+				mappedHostResolver.removeHostForIP("10.0.1.2");
+				testDoesThrow(() -> InetAddress.getByName("hello.cache.two"), UnknownHostException.class);
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.disableMetrics();
+			}
+		});
+	}
+
+	@Test
+	@Order(9)
+	public void cacheTest() {
+		testDoesNotThrow(() -> {
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.l1.cache", "10.0.2.1");
+			dNSServer.setTimeToLive(2);
+			HostResolutionRequestInterceptor.INSTANCE.install(
+				mappedHostResolver,
+				new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort())
+			).enableCache(64);
+			try {
+				HostResolutionCache cache = HostResolutionRequestInterceptor.INSTANCE.getCache();
+				long startTime = System.currentTimeMillis();
+				assertNotNull(InetAddress.getByName("hello.world.dns"));
+				HostResolutionCache.Entry entry = cache.get("hello.world.dns");
+				//The time to live of the DNS records is lower than the default one
+				assertTrue(entry.getExpirationTime() <= System.currentTimeMillis() + 2000);
+				assertTrue(entry.getExpirationTime() >= startTime + 2000);
+				testDoesThrow(() -> InetAddress.getByName("hello.l1.unknown"), UnknownHostException.class);
+				assertTrue(cache.get("hello.l1.unknown").isNegative());
+				assertTrue("10.0.2.1".equals(InetAddress.getByName("hello.l1.cache").getHostAddress()));
+				mappedHostResolver.putHost("hello.l1.cache", "10.0.2.2");
+				assertTrue(cache.get("hello.l1.cache") == null);
+				assertTrue("10.0.2.2".equals(InetAddress.getByName("hello.l1.cache").getHostAddress()));
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.disableCache();
+				dNSServer.setTimeToLive(EmbeddedDNSServer.DEFAULT_TIME_TO_LIVE);
+			}
+			try (EmbeddedDNSServer unreachableDNSServer = new EmbeddedDNSServer().setPacketLossProbability(1).start()) {
+				HostResolutionRequestInterceptor.INSTANCE.install(
+					new DNSClientHostResolver(unreachableDNSServer.getAddress(), unreachableDNSServer.getPort()).setTimeout(200)
+				).enableCache(64);
+				//A timeout does not establish that the host name does not exist: the failure is not cached
+				testDoesThrow(() -> InetAddress.getByName("hello.l1.timeout"), UnknownHostException.class);
+				assertTrue(HostResolutionRequestInterceptor.INSTANCE.getCache().get("hello.l1.timeout") == null);
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.disableCache();
+			}
+			TinyLFUHostResolutionCache cache = new TinyLFUHostResolutionCache(100);
+			List<InetAddress> addresses = Collections.singletonList(InetAddress.getByAddress(new byte[] {10, 0, 2, 3}));
+			for (int i = 0; i < 5; i++) {
+				for (int j = 0; j < 50; j++) {
+					if (cache.get("hot" + j) == null) {
+						cache.put("hot" + j, addresses, 60000);
+					}
+				}
+			}
+			for (int i = 0; i < 1000; i++) {
+				cache.put("cold" + i, addresses, 60000);
+			}
+			int retainedHotEntries = 0;
+			for (int j = 0; j < 50; j++) {
+				if (cache.get("hot" + j) != null) {
+					++retainedHotEntries;
+				}
+			}
+			//The entries accessed once are not admitted at the expense of the frequently accessed ones
+			assertTrue(cache.size() <= 100);
+			assertTrue(retainedHotEntries >= 45);
+		});
+	}
+
+	@Test
+	@Order(10)
+	public void cacheSnapshotTest() {
+		testDoesNotThrow(() -> {
+			Path file = Files.createTempDirectory("burningwave").resolve("host-resolution-cache.bin");
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.snapshot", "10.0.3.1");
+			HostResolutionRequestInterceptor.INSTANCE.enableCache(64).enableCacheSnapshot(file, 0).install(mappedHostResolver);
+			try {
+				assertTrue("10.0.3.1".equals(InetAddress.getByName("hello.snapshot").getHostAddress()));
+				HostResolutionRequestInterceptor.INSTANCE.storeCacheSnapshot();
+				assertTrue(Files.exists(file));
+				//A restart with a cold cache and a changed mapping
+				mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+				mappedHostResolver.putHost("hello.snapshot", "10.0.3.2");
+				HostResolutionRequestInterceptor.INSTANCE.enableCache(64).install(mappedHostResolver);
+				HostResolutionCache cache = HostResolutionRequestInterceptor.INSTANCE.getCache();
+				assertNotNull(cache.get("hello.snapshot"));
+				long expirationTime = System.currentTimeMillis() + 5000;
+				while (!"10.0.3.2".equals(cache.get("hello.snapshot").getAddresses().get(0).getHostAddress())) {
+					assertTrue(System.currentTimeMillis() < expirationTime);
+					Thread.sleep(10);
+				}
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.disableCacheSnapshot().disableCache();
+			}
+			HostResolutionCacheSnapshot cacheSnapshot = new HostResolutionCacheSnapshot(file);
+			TinyLFUHostResolutionCache cache = new TinyLFUHostResolutionCache(16);
+			List<InetAddress> addresses = Collections.singletonList(InetAddress.getByAddress(new byte[] {10, 0, 3, 3}));
+			cache.put("hello.snapshot.expiring", addresses, 50);
+			cache.put("hello.snapshot.lasting", addresses, 60000);
+			cacheSnapshot.store(cache);
+			Thread.sleep(100);
+			//The entries expired after the storing are not loaded
+			assertTrue(cacheSnapshot.load(new TinyLFUHostResolutionCache(16)).equals(Collections.singletonList("hello.snapshot.lasting")));
+			Files.delete(file);
+			Files.delete(file.getParent());
+		});
+	}
+
+	@Test
+	@Order(11)
+	public void parallelResolutionTest() {
+		testDoesNotThrow(() -> {
+			ExecutorService executor = HostResolutionExecutors.newExecutor();
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.world.dns", "10.0.4.1");
+			//Every DNS resolver waits for the other one to be called: sequentially the first one would time out
+			CountDownLatch dNSResolversCalled = new CountDownLatch(2);
+			Collection<Boolean> rendezvousOutcomes = new CopyOnWriteArrayList<>();
+			Function<HostResolver, HostResolver> rendezvous = resolver -> new HostResolver() {
+				@Override
+				public Collection<InetAddress> getAllAddressesForHostName(Map<String, Object> arguments) {
+					dNSResolversCalled.countDown();
+					try {
+						rendezvousOutcomes.add(dNSResolversCalled.await(10, TimeUnit.SECONDS));
+					} catch (InterruptedException exc) {
+						Thread.currentThread().interrupt();
+					}
+					return resolver.getAllAddressesForHostName(arguments);
+				}
+
+				@Override
+				public Collection<String> getAllHostNamesForHostAddress(Map<String, Object> arguments) {
+					return resolver.getAllHostNamesForHostAddress(arguments);
+				}
+			};
+			HostResolutionRequestInterceptor.INSTANCE.enableParallelResolution().install(
+				mappedHostResolver,
+				rendezvous.apply(new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()).setExecutor(executor)),
+				rendezvous.apply(new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()).setExecutor(executor))
+			);
+			//The install does not flush the JDK cache: the answers of the previous resolvers are evicted explicitly
+			HostResolutionRequestInterceptor.INSTANCE.clearCache("hello.world.dns");
+			try {
+				InetAddress[] addresses = InetAddress.getAllByName("hello.world.dns");
+				assertTrue(rendezvousOutcomes.size() == 2 && !rendezvousOutcomes.contains(Boolean.FALSE));
+				//The answers are merged in the order of the resolvers
+				assertTrue("10.0.4.1".equals(addresses[0].getHostAddress()));
+				assertTrue("10.0.0.1".equals(addresses[1].getHostAddress()));
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.disableParallelResolution();
+				executor.shutdown();
+			}
+		});
+	}
+
+	@Test
+	@Order(12)
+	public void resolverPoolTest() {
+		testDoesNotThrow(() -> {
+			dNSServer.putHost("hello.world.pool", "10.0.5.1");
+			try (
+				EmbeddedDNSServer unreachableDNSServer = new EmbeddedDNSServer().setPacketLossProbability(1).start();
+				EmbeddedDNSServer slowDNSServer = new EmbeddedDNSServer().putHost("hello.world.pool", "10.0.5.2").setLatency(300).start()
+			) {
+				DNSClientHostResolver unreachableResolver = new DNSClientHostResolver(unreachableDNSServer.getAddress(), unreachableDNSServer.getPort(), DNSClientHostResolver.IPV4_RETRIEVER).setTimeout(200);
+				DNSClientHostResolver slowResolver = new DNSClientHostResolver(slowDNSServer.getAddress(), slowDNSServer.getPort(), DNSClientHostResolver.IPV4_RETRIEVER);
+				DNSClientHostResolver fastResolver = new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort(), DNSClientHostResolver.IPV4_RETRIEVER);
+				DNSClientHostResolverPool pool = new DNSClientHostResolverPool(unreachableResolver, slowResolver, fastResolver).setEjectionThreshold(1);
+				//The servers without samples are tried in configuration order: the unreachable one fails and is ejected
+				assertTrue("10.0.5.2".equals(resolve(pool, "hello.world.pool")));
+				assertTrue(pool.getServers().get(0).isEjected());
+				assertTrue("10.0.5.1".equals(resolve(pool, "hello.world.pool")));
+				//From now on the fastest server is preferred and the slow one is not queried
+				long slowServerUDPQueryCount = slowDNSServer.getUDPQueryCount();
+				assertTrue("10.0.5.1".equals(resolve(pool, "hello.world.pool")));
+				assertTrue(slowDNSServer.getUDPQueryCount() == slowServerUDPQueryCount);
+				pool = new DNSClientHostResolverPool(slowResolver, fastResolver).setHedgingPercentile(0.95);
+				//The slow server has no samples so the query is hedged immediately to the fast one, whose
+				//answer is returned although the slow server has been queried first
+				assertTrue("10.0.5.1".equals(resolve(pool, "hello.world.pool")));
+				assertTrue(slowDNSServer.getUDPQueryCount() == slowServerUDPQueryCount + 1);
+			} finally {
+				dNSServer.removeHost("hello.world.pool");
+			}
+		});
+	}
+
+	private String resolve(DNSClientHostResolverPool pool, String hostName) {
+		return pool.getAllAddressesForHostName(new HostResolutionRequest(new Object[] {hostName})).iterator().next().getHostAddress();
+	}
+
+	@Test
+	@Order(13)
+	public void concurrencyLimiterTest() {
+		testDoesNotThrow(() -> {
+			QueryConcurrencyLimiter concurrencyLimiter = new QueryConcurrencyLimiter(1, 1);
+			DNSClientHostResolver dNSClientHostResolver = new DNSClientHostResolver(
+				dNSServer.getAddress(), dNSServer.getPort(), DNSClientHostResolver.IPV4_RETRIEVER
+			).setConcurrencyLimiter(concurrencyLimiter);
+			ExecutorService executor = HostResolutionExecutors.newExecutor();
+			dNSServer.setLatency(300);
+			try {
+				Future<?> inFlight = executor.submit(() -> dNSClientHostResolver.resolveHostForName("hello.world.dns"));
+				while (concurrencyLimiter.getInFlight() < 1) {
+					Thread.sleep(1);
+				}
+				Future<?> queued = executor.submit(() -> dNSClientHostResolver.resolveHostForName("hello.world.dns"));
+				while (concurrencyLimiter.getQueueDepth() < 1) {
+					Thread.sleep(1);
+				}
+				//Both the slot and the queue are taken
+				testDoesThrow(() -> dNSClientHostResolver.resolveHostForName("hello.world.dns"), UnknownHostException.class);
+				inFlight.get();
+				queued.get();
+				assertTrue(concurrencyLimiter.getRejectedQueries() == 1);
+				assertTrue(concurrencyLimiter.getPeakQueueDepth() == 1);
+				assertTrue(concurrencyLimiter.getInFlight() == 0);
+			} finally {
+				dNSServer.setLatency(0);
+				executor.shutdown();
+			}
+			QueryConcurrencyLimiter adaptiveConcurrencyLimiter = new QueryConcurrencyLimiter(1, 4, 0);
+			adaptiveConcurrencyLimiter.acquire(0);
+			adaptiveConcurrencyLimiter.release(false);
+			assertTrue(adaptiveConcurrencyLimiter.getLimit() == 3);
+			for (int i = 0; i < 10; i++) {
+				adaptiveConcurrencyLimiter.acquire(0);
+				adaptiveConcurrencyLimiter.release(true);
+			}
+			assertTrue(adaptiveConcurrencyLimiter.getLimit() == 4);
+			//A timeout of 0 means no limit as for the timeout of the resolvers
+			QueryConcurrencyLimiter unboundedConcurrencyLimiter = new QueryConcurrencyLimiter(1, 1);
+			unboundedConcurrencyLimiter.acquire(0);
+			ExecutorService waitingExecutor = HostResolutionExecutors.newExecutor();
+			try {
+				Future<?> waiting = waitingExecutor.submit(() -> {
+					unboundedConcurrencyLimiter.acquire(0);
+					return null;
+				});
+				while (unboundedConcurrencyLimiter.getQueueDepth() < 1) {
+					Thread.sleep(1);
+				}
+				unboundedConcurrencyLimiter.release(true);
+				waiting.get();
+				assertTrue(unboundedConcurrencyLimiter.getInFlight() == 1 && unboundedConcurrencyLimiter.getTimedOutQueries() == 0);
+			} finally {
+				waitingExecutor.shutdown();
+			}
+		});
+	}
+
+	@Test
+	@Order(14)
+	public void bulkResolutionTest() {
+		testDoesNotThrow(() -> {
+			List<String> hostNames = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				dNSServer.putHost("hello.bulk" + i, "10.0.6." + i);
+				hostNames.add("hello.bulk" + i);
+			}
+			hostNames.add("hello.bulk.unknown");
+			try {
+				DNSClientHostResolver dNSClientHostResolver = new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()).setPipelineWindow(16);
+				long uDPQueryCount = dNSServer.getUDPQueryCount();
+				Map<String, Collection<InetAddress>> addressesForHostName = dNSClientHostResolver.resolveAll(hostNames);
+				//One A and one AAAA query for every host name
+				assertTrue(dNSServer.getUDPQueryCount() - uDPQueryCount == 402);
+				assertTrue(addressesForHostName.size() == 201);
+				for (int i = 0; i < 200; i++) {
+					assertTrue(("10.0.6." + i).equals(addressesForHostName.get("hello.bulk" + i).iterator().next().getHostAddress()));
+				}
+				assertTrue(addressesForHostName.get("hello.bulk.unknown").isEmpty());
+				byte[] addressOne = IPAddressUtil.INSTANCE.textToNumericFormat("10.0.6.7");
+				byte[] addressTwo = IPAddressUtil.INSTANCE.textToNumericFormat("10.0.0.1");
+				Map<byte[], Collection<String>> hostNamesForAddress = dNSClientHostResolver.reverseResolveAll(Arrays.asList(addressOne, addressTwo));
+				assertTrue(hostNamesForAddress.get(addressOne).contains("hello.bulk7"));
+				assertTrue(hostNamesForAddress.get(addressTwo).contains("hello.world.dns"));
+				dNSServer.setTruncateResponses(true);
+				try {
+					//The truncated responses are requested again over TCP after the UDP exchange
+					long tCPQueryCount = dNSServer.getTCPQueryCount();
+					Map<String, Collection<InetAddress>> truncatedAddressesForHostName = dNSClientHostResolver.resolveAll(hostNames.subList(0, 10));
+					assertTrue(dNSServer.getTCPQueryCount() - tCPQueryCount == 20);
+					for (int i = 0; i < 10; i++) {
+						assertTrue(("10.0.6." + i).equals(truncatedAddressesForHostName.get("hello.bulk" + i).iterator().next().getHostAddress()));
+					}
+				} finally {
+					dNSServer.setTruncateResponses(false);
+				}
+				dNSServer.setLatency(500);
+				try {
+					//The queries not answered before the deadline are not in the results
+					assertTrue(dNSClientHostResolver.resolveAll(hostNames, 100).isEmpty());
+				} finally {
+					dNSServer.setLatency(0);
+				}
+				dNSServer.setFailureResponseCode(2);
+				try {
+					//The host names whose queries have failed are not reported as not existent
+					assertTrue(dNSClientHostResolver.resolveAll(hostNames.subList(0, 10)).isEmpty());
+					assertTrue(dNSClientHostResolver.reverseResolveAll(Arrays.asList(addressOne, addressTwo)).isEmpty());
+				} finally {
+					dNSServer.setFailureResponseCode(0);
+				}
+				try (EmbeddedDNSServer unreachableDNSServer = new EmbeddedDNSServer().setPacketLossProbability(1).start()) {
+					//Every lost query is sent again once and then abandoned, freeing its slot for the next queries
+					DNSClientHostResolver unreachableResolver = new DNSClientHostResolver(unreachableDNSServer.getAddress(), unreachableDNSServer.getPort())
+						.setPipelineWindow(2).setTimeout(50);
+					assertTrue(unreachableResolver.resolveAll(hostNames.subList(0, 10), 60000).isEmpty());
+					assertTrue(unreachableDNSServer.getUDPQueryCount() == 40);
+				}
+			} finally {
+				for (int i = 0; i < 200; i++) {
+					dNSServer.removeHost("hello.bulk" + i);
+				}
+			}
+		});
+	}
+
+	@Test
+	@Order(15)
+	public void suffixRoutingTest() {
+		testDoesNotThrow(() -> {
+			MappedHostResolver corpResolver = new MappedHostResolver(new LinkedHashMap<>());
+			corpResolver.putHost("hello.corp", "10.0.7.1").putHost("hello.example", "10.0.7.3");
+			MappedHostResolver publicResolver = new MappedHostResolver(new LinkedHashMap<>());
+			publicResolver.putHost("hello.corp", "10.0.7.9").putHost("hello.example", "10.0.7.2");
+			HostResolutionRequestInterceptor.INSTANCE.install(
+				new SuffixRoutingHostResolver(publicResolver)
+					.route("*.corp", corpResolver)
+					.route("7.0.10.in-addr.arpa", corpResolver)
+			);
+			//Every name is asked only to the resolvers of its zone
+			InetAddress[] addresses = InetAddress.getAllByName("hello.corp");
+			assertTrue(addresses.length == 1 && "10.0.7.1".equals(addresses[0].getHostAddress()));
+			addresses = InetAddress.getAllByName("hello.example");
+			assertTrue(addresses.length == 1 && "10.0.7.2".equals(addresses[0].getHostAddress()));
+			assertTrue("hello.corp".equals(InetAddress.getByAddress(new byte[] {10, 0, 7, 1}).getCanonicalHostName()));
+			testDoesThrow(() -> InetAddress.getByName("hello.world.corp"), UnknownHostException.class);
+			//The cached answer is invalidated also when the modified resolver is wrapped by a composite one
+			corpResolver.putHost("hello.corp", "10.0.7.4");
+			assertTrue("10.0.7.4".equals(InetAddress.getByName("hello.corp").getHostAddress()));
+		});
+	}
+
+	@Test
+	@Order(16)
+	public void reverseCacheTest() {
+		testDoesNotThrow(() -> {
+			DNSClientHostResolver dNSClientHostResolver = new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()).enableReverseCache(16, 1000);
+			long uDPQueryCount = dNSServer.getUDPQueryCount();
+			for (int i = 0; i < 3; i++) {
+				assertTrue(dNSClientHostResolver.resolveHostForAddress("10.0.0.1").contains("hello.world.dns"));
+				assertTrue(dNSClientHostResolver.resolveHostForAddress("2001:db8::1").contains("hello.world.dns"));
+				assertTrue(dNSClientHostResolver.resolveHostForAddress("10.0.8.1").isEmpty());
+			}
+			//Only the first lookup of every address has been sent to the server
+			assertTrue(dNSServer.getUDPQueryCount() - uDPQueryCount == 3);
+			assertTrue(dNSClientHostResolver.getReverseCacheSize() == 3);
+			dNSServer.putHost("hello.reverse", "10.0.8.1");
+			try {
+				Thread.sleep(1100);
+				//The negative answer has expired
+				assertTrue(dNSClientHostResolver.resolveHostForAddress("10.0.8.1").contains("hello.reverse"));
+			} finally {
+				dNSServer.removeHost("hello.reverse");
+			}
+		});
+	}
+
+	@Test
+	@Order(17)
+	public void addressOrderingTest() {
+		testDoesNotThrow(() -> {
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.world.dns", "10.0.0.1");
+			MappedHostResolver lastMappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			lastMappedHostResolver.putHost("hello.world.dns", "2001:db8::2");
+			HostResolutionRequestInterceptor.INSTANCE.install(
+				mappedHostResolver,
+				new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()),
+				lastMappedHostResolver
+			);
+			HostResolutionRequestInterceptor.INSTANCE.clearCache("hello.world.dns");
+			try {
+				//The duplicated addresses, included the IPv4 mapped one, are removed
+				InetAddress[] addresses = InetAddress.getAllByName("hello.world.dns");
+				assertTrue(addresses.length == 4);
+				HostResolutionRequestInterceptor.INSTANCE.setAddressOrderingPolicy(AddressOrderingPolicy.PREFER_IPV6).clearCache();
+				//The policy orders the merged answer of all the resolvers
+				List<String> orderedAddresses = new ArrayList<>();
+				for (InetAddress address : InetAddress.getAllByName("hello.world.dns")) {
+					orderedAddresses.add(address.getHostAddress());
+				}
+				assertTrue(orderedAddresses.equals(Arrays.asList(
+					"2001:db8:0:0:0:0:0:1", "2001:db8:0:0:0:0:0:2", "10.0.0.1", "10.0.0.2"
+				)));
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.setAddressOrderingPolicy(null);
+			}
+			List<InetAddress> addresses = Arrays.asList(
+				InetAddress.getByName("2001:db8::1"),
+				InetAddress.getByName("fe80::1"),
+				InetAddress.getByName("10.0.0.1"),
+				InetAddress.getByName("10.0.0.2")
+			);
+			assertTrue(AddressOrderingPolicy.PREFER_IPV4.order("hello.world.dns", addresses).get(0).equals(addresses.get(2)));
+			//Precedence first and then scope: link local IPv6, global IPv6 and IPv4
+			assertTrue(AddressOrderingPolicy.RFC_6724.order("hello.world.dns", addresses).equals(
+				Arrays.asList(addresses.get(1), addresses.get(0), addresses.get(2), addresses.get(3))
+			));
+			LatencyFeedbackOrderingPolicy latencyFeedbackOrderingPolicy = new LatencyFeedbackOrderingPolicy();
+			latencyFeedbackOrderingPolicy.recordSuccess(addresses.get(0), 50_000_000);
+			latencyFeedbackOrderingPolicy.recordSuccess(addresses.get(1), 50_000_000);
+			latencyFeedbackOrderingPolicy.recordFailure(addresses.get(1));
+			latencyFeedbackOrderingPolicy.recordSuccess(addresses.get(2), 1_000_000);
+			//The address never measured comes first
+			assertTrue(latencyFeedbackOrderingPolicy.order("hello.world.dns", addresses).equals(
+				Arrays.asList(addresses.get(3), addresses.get(2), addresses.get(0), addresses.get(1))
+			));
+		});
+	}
+
+	@Test
+	@Order(18)
+	public void connectFeedbackTest() {
+		testDoesNotThrow(() -> {
+			HostResolutionRequestInterceptor.INSTANCE.install(new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()))
+				.enableCache(64)
+				.setAddressOrderingPolicy(new LatencyFeedbackOrderingPolicy(AddressOrderingPolicy.PREFER_IPV4, LatencyFeedbackOrderingPolicy.DEFAULT_FAILURE_PENALTY, 16));
+			HostResolutionRequestInterceptor.INSTANCE.clearCache("hello.world.dns");
+			try {
+				InetAddress[] addresses = InetAddress.getAllByName("hello.world.dns");
+				assertTrue("10.0.0.1".equals(addresses[0].getHostAddress()));
+				HostResolutionRequestInterceptor.INSTANCE
+					.reportConnectSuccess(addresses[0], 80_000_000)
+					.reportConnectSuccess(addresses[1], 1_000_000)
+					.reportConnectFailure(addresses[2]);
+				//The next lookup returns first the fastest address without waiting for the JDK cache expiration
+				addresses = InetAddress.getAllByName("hello.world.dns");
+				assertTrue("10.0.0.2".equals(addresses[0].getHostAddress()));
+				assertTrue("10.0.0.1".equals(addresses[1].getHostAddress()));
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.setAddressOrderingPolicy(null).disableCache();
+			}
+		});
+	}
+
+	@Test
+	@Order(19)
+	public void serviceResolutionTest() {
+		testDoesNotThrow(() -> {
+			dNSServer.putService("_http._tcp.world.dns", 20, 0, 8082, "backup.world.dns")
+				.putService("_http._tcp.world.dns", 10, 60, 8080, "hello.world.dns")
+				.putService("_http._tcp.world.dns", 10, 40, 8081, "other.world.dns");
+			try {
+				DNSClientHostResolver dNSClientHostResolver = new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort()).enableServiceCache(16, 1000);
+				long uDPQueryCount = dNSServer.getUDPQueryCount();
+				for (int i = 0; i < 10; i++) {
+					List<ServiceRecord> records = dNSClientHostResolver.resolveService("_http._tcp.world.dns");
+					assertTrue(records.size() == 3);
+					//The record with the highest priority value is always the last one
+					assertTrue(records.get(2).getPort() == 8082 && "backup.world.dns".equals(records.get(2).getTarget()));
+					assertTrue(dNSClientHostResolver.selectService("_http._tcp.world.dns").getPriority() == 10);
+				}
+				assertTrue(dNSClientHostResolver.resolveService("_ftp._tcp.world.dns").isEmpty());
+				assertTrue(dNSClientHostResolver.selectService("_ftp._tcp.world.dns") == null);
+				//Only the first lookup of every service has been sent to the server
+				assertTrue(dNSServer.getUDPQueryCount() - uDPQueryCount == 2);
+				assertTrue(dNSClientHostResolver.getServiceCacheSize() == 2);
+				//A server failure is reported and not cached as the absence of records
+				dNSServer.setFailureResponseCode(2);
+				testDoesThrow(() -> dNSClientHostResolver.resolveService("_smtp._tcp.world.dns"), UnknownHostException.class);
+				assertTrue(dNSClientHostResolver.getServiceCacheSize() == 2);
+			} finally {
+				dNSServer.setFailureResponseCode(0);
+				dNSServer.removeService("_http._tcp.world.dns");
+			}
+		});
+	}
+
+	@Test
+	@Order(20)
+	public void mappedFileCacheTest() {
+		testDoesNotThrow(() -> {
+			Path file = Files.createTempDirectory("burningwave").resolve("shared-host-resolution-cache.bin");
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.shared", "10.0.9.1");
+			try (MappedFileHostResolutionCache cache = new MappedFileHostResolutionCache(file, 256);
+				//The instance of another process sharing the file
+				MappedFileHostResolutionCache otherCache = new MappedFileHostResolutionCache(file, 1024)
+			) {
+				assertTrue(otherCache.getSlotCount() == 256);
+				HostResolutionRequestInterceptor.INSTANCE.enableCache(cache).install(mappedHostResolver);
+				try {
+					assertTrue("10.0.9.1".equals(InetAddress.getByName("hello.shared").getHostAddress()));
+					testDoesThrow(() -> InetAddress.getByName("hello.shared.missing"), UnknownHostException.class);
+				} finally {
+					HostResolutionRequestInterceptor.INSTANCE.disableCache();
+				}
+				assertTrue("10.0.9.1".equals(otherCache.get("hello.shared").getAddresses().get(0).getHostAddress()));
+				assertTrue(otherCache.get("hello.shared.missing").isNegative());
+				otherCache.put("hello.shared.expiring", Arrays.asList(InetAddress.getByName("2001:db8::9"), InetAddress.getByName("10.0.9.2")), 50);
+				assertTrue(cache.get("hello.shared.expiring").getAddresses().size() == 2);
+				Thread.sleep(100);
+				assertTrue(cache.get("hello.shared.expiring") == null);
+				assertTrue(cache.size() == 2);
+				otherCache.remove(Collections.singletonList("hello.shared"));
+				assertTrue(cache.get("hello.shared") == null);
+				otherCache.clear();
+				assertTrue(cache.size() == 0);
+			}
+			Files.delete(file);
+			//A writer that dies in the middle of a write leaves the sequence number of the slot odd
+			try (MappedFileHostResolutionCache cache = new MappedFileHostResolutionCache(file, 1)) {
+				cache.put("hello.crashed", Arrays.asList(InetAddress.getByName("10.0.9.3")), 60000);
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+					MappedByteBuffer slot = channel.map(FileChannel.MapMode.READ_WRITE, 64, 4);
+					slot.order(ByteOrder.nativeOrder()).putInt(0, slot.getInt(0) | 1);
+				}
+				assertTrue(cache.get("hello.crashed") == null);
+				cache.put("hello.crashed", Arrays.asList(InetAddress.getByName("10.0.9.4")), 60000);
+				assertTrue("10.0.9.4".equals(cache.get("hello.crashed").getAddresses().get(0).getHostAddress()));
+			}
+			Files.delete(file);
+			Files.delete(file.getParent());
+		});
+	}
+
+	@Test
+	@Order(21)
+	public void warmUpTest() {
+		testDoesNotThrow(() -> {
+			List<String> hostNames = new ArrayList<>();
+			for (int i = 1; i <= 8; i++) {
+				hostNames.add("hello.warm.up." + i);
+				dNSServer.putHost("hello.warm.up." + i, "10.0.10." + i);
+			}
+			//Every warm up lookup waits for the other ones: if they were sequential the first would time out
+			CountDownLatch warmUpLookupsStarted = new CountDownLatch(hostNames.size());
+			Collection<Boolean> rendezvousOutcomes = new CopyOnWriteArrayList<>();
+			HostResolver dNSClientHostResolver = new DNSClientHostResolver(dNSServer.getAddress(), dNSServer.getPort());
+			try {
+				HostResolutionRequestInterceptor.INSTANCE.enableCache(64).install(
+					hostNames,
+					new HostResolver() {
+						@Override
+						public Collection<InetAddress> getAllAddressesForHostName(Map<String, Object> arguments) {
+							if (hostNames.contains(getMethodArguments(arguments)[0])) {
+								warmUpLookupsStarted.countDown();
+								try {
+									rendezvousOutcomes.add(warmUpLookupsStarted.await(10, TimeUnit.SECONDS));
+								} catch (InterruptedException exc) {
+									Thread.currentThread().interrupt();
+								}
+							}
+							return dNSClientHostResolver.getAllAddressesForHostName(arguments);
+						}
+
+						@Override
+						public Collection<String> getAllHostNamesForHostAddress(Map<String, Object> arguments) {
+							return dNSClientHostResolver.getAllHostNamesForHostAddress(arguments);
+						}
+					}
+				);
+				assertTrue(rendezvousOutcomes.size() == hostNames.size() && !rendezvousOutcomes.contains(Boolean.FALSE));
+				HostResolutionCache cache = HostResolutionRequestInterceptor.INSTANCE.getCache();
+				long uDPQueryCount = dNSServer.getUDPQueryCount();
+				for (int i = 1; i <= 8; i++) {
+					assertNotNull(cache.get("hello.warm.up." + i));
+					assertTrue(("10.0.10." + i).equals(InetAddress.getByName("hello.warm.up." + i).getHostAddress()));
+				}
+				assertTrue(dNSServer.getUDPQueryCount() == uDPQueryCount);
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.disableCache();
+				for (String hostName : hostNames) {
+					dNSServer.removeHost(hostName);
+				}
+			}
+		});
+	}
+
+	@Test
+	@Order(22)
+	public void resolvConfTest() {
+		testDoesNotThrow(() -> {
+			Path resolvConf = Files.createTempFile("resolv", ".conf");
+			Files.write(resolvConf, Arrays.asList(
+				"# Generated for the test",
+				"nameserver " + dNSServer.getAddress(),
+				"nameserver " + dNSServer.getAddress(),
+				"domain other.dns",
+				"search corp.dns world.dns",
+				"options ndots:2 timeout:2 attempts:3 rotate"
+			));
+			try {
+				DNSClientHostResolverPool pool = DNSClientHostResolverPool.newInstance(resolvConf, dNSServer.getPort());
+				assertTrue(pool.getServers().size() == 2);
+				assertTrue(pool.getServers().get(0).getResolver().getTimeout() == 2000);
+				assertTrue(pool.getAttempts() == 3 && pool.getNdots() == 2 && pool.isRotate());
+				assertTrue(pool.getSearchDomains().equals(Arrays.asList("corp.dns", "world.dns")));
+				long uDPQueryCount = dNSServer.getUDPQueryCount();
+				//The first search domain does not resolve: two queries, for IPv4 and IPv6, for each name tried
+				Collection<InetAddress> addresses = pool.getAllAddressesForHostName(new HostResolutionRequest(new Object[] {"hello"}));
+				assertTrue(addresses.size() == 3 && "hello".equals(addresses.iterator().next().getHostName()));
+				assertTrue(dNSServer.getUDPQueryCount() - uDPQueryCount == 4);
+				//The fully qualified names are not expanded
+				uDPQueryCount = dNSServer.getUDPQueryCount();
+				assertTrue("10.0.0.1".equals(resolve(pool, "hello.world.dns")));
+				assertTrue("10.0.0.1".equals(resolve(pool, "hello.world.dns.")));
+				assertTrue(dNSServer.getUDPQueryCount() - uDPQueryCount == 4);
+				uDPQueryCount = dNSServer.getUDPQueryCount();
+				assertTrue(pool.getAllAddressesForHostName(new HostResolutionRequest(new Object[] {"hello.world"})).isEmpty());
+				assertTrue(dNSServer.getUDPQueryCount() - uDPQueryCount == 6);
+				Files.write(resolvConf, Arrays.asList("options timeout:0 attempts:0"));
+				pool = DNSClientHostResolverPool.newInstance(resolvConf, dNSServer.getPort());
+				assertTrue(pool.getServers().get(0).getResolver().getTimeout() == 1000 && pool.getAttempts() == 1);
+			} finally {
+				Files.delete(resolvConf);
+			}
+		});
+	}
+
+	@Test
+	@Order(23)
+	public void scopedResolutionTest() {
+		testDoesNotThrow(() -> {
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.scope", "10.0.11.1");
+			HostResolutionRequestInterceptor.INSTANCE.enableCache(64).install(mappedHostResolver);
+			ExecutorService executor = HostResolutionExecutors.newExecutor();
+			try {
+				assertTrue("10.0.11.1".equals(InetAddress.getByName("hello.scope").getHostAddress()));
+				MappedHostResolver scopedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+				scopedHostResolver.putHost("hello.scope", "10.0.11.2");
+				try (HostResolutionScope scope = HostResolutionRequestInterceptor.INSTANCE.openScope(scopedHostResolver)) {
+					//The answer cached by the JDK before the scope has been opened is not used
+					assertTrue("10.0.11.2".equals(InetAddress.getByName("hello.scope").getHostAddress()));
+					//The other threads keep using the installed resolvers unless they run a wrapped task
+					assertTrue("10.0.11.1".equals(executor.submit(() -> InetAddress.getByName("hello.scope").getHostAddress()).get()));
+					assertTrue("10.0.11.2".equals(executor.submit(scope.wrap(() -> InetAddress.getByName("hello.scope").getHostAddress())).get()));
+					Future<String> otherScopeAnswer = executor.submit(() -> {
+						MappedHostResolver otherScopedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+						otherScopedHostResolver.putHost("hello.scope", "10.0.11.3");
+						try (HostResolutionScope otherScope = HostResolutionRequestInterceptor.INSTANCE.openScope(otherScopedHostResolver)) {
+							assertTrue(HostResolutionRequestInterceptor.INSTANCE.getCurrentScope() == otherScope);
+							return InetAddress.getByName("hello.scope").getHostAddress();
+						}
+					});
+					assertTrue("10.0.11.3".equals(otherScopeAnswer.get()));
+					assertTrue("10.0.11.2".equals(InetAddress.getByName("hello.scope").getHostAddress()));
+					//The answers of the scope are not stored in the JDK cache shared with the other threads
+					HostResolutionRequestInterceptor.INSTANCE.clearCache("hello.scope");
+					assertTrue("10.0.11.2".equals(InetAddress.getByName("hello.scope").getHostAddress()));
+					assertTrue("10.0.11.1".equals(executor.submit(() -> InetAddress.getByName("hello.scope").getHostAddress()).get()));
+					testDoesThrow(() -> executor.submit(scope::close).get(), ExecutionException.class);
+					HostResolutionScope innerScope = HostResolutionRequestInterceptor.INSTANCE.openScope(mappedHostResolver);
+					testDoesThrow(scope::close, IllegalStateException.class);
+					innerScope.close();
+					assertTrue(HostResolutionRequestInterceptor.INSTANCE.getCurrentScope() == scope);
+				}
+				assertTrue(HostResolutionRequestInterceptor.INSTANCE.getCurrentScope() == null);
+				assertTrue("10.0.11.1".equals(InetAddress.getByName("hello.scope").getHostAddress()));
+			} finally {
+				executor.shutdownNow();
+				HostResolutionRequestInterceptor.INSTANCE.disableCache();
+			}
+		});
+	}
+
+	@Test
+	@Order(24)
+	public void resolverProviderTest() {
+		testDoesNotThrow(() -> {
+			//From JDK 18 the tests run with the resolver provider registered
+			if (JVMInfo.getVersion() < 18) {
+				return;
+			}
+			Object resolver = Fields.getStaticDirect(InetAddress.class, "resolver");
+			assertTrue(resolver.getClass().getName().startsWith("org.burningwave.tools.net.HostResolverProvider"));
+			MappedHostResolver mappedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+			mappedHostResolver.putHost("hello.provider", "10.0.12.1");
+			HostResolutionRequestInterceptor.INSTANCE.install(mappedHostResolver, DefaultHostResolver.INSTANCE);
+			try {
+				//The handlers of the interceptor are bound to the resolver instead of replacing it
+				assertTrue(Fields.getStaticDirect(InetAddress.class, "resolver") == resolver);
+				assertTrue("10.0.12.1".equals(InetAddress.getByName("hello.provider").getHostAddress()));
+				assertTrue("hello.provider".equals(InetAddress.getByAddress(new byte[] {10, 0, 12, 1}).getCanonicalHostName()));
+				//The lookups of the resolvers of the chain reach the builtin resolver
+				assertTrue(InetAddress.getByName("localhost").isLoopbackAddress());
+				MappedHostResolver scopedHostResolver = new MappedHostResolver(new LinkedHashMap<>());
+				scopedHostResolver.putHost("hello.provider", "10.0.12.2");
+				try (HostResolutionScope scope = HostResolutionRequestInterceptor.INSTANCE.openScope(scopedHostResolver)) {
+					assertTrue(HostResolutionRequestInterceptor.INSTANCE.getCurrentScope() == scope);
+					assertTrue("10.0.12.2".equals(InetAddress.getByName("hello.provider").getHostAddress()));
+				}
+				assertTrue("10.0.12.1".equals(InetAddress.getByName("hello.provider").getHostAddress()));
+			} finally {
+				HostResolutionRequestInterceptor.INSTANCE.uninstall();
+			}
+			assertTrue(Fields.getStaticDirect(InetAddress.class, "resolver") == resolver);
+			HostResolutionRequestInterceptor.INSTANCE.clearCache("hello.provider");
+			testDoesThrow(() -> InetAddress.getByName("hello.provider"), UnknownHostException.class);
+		});
+	}
 }
@@ -0,0 +1,15 @@
+package org.burningwave.tools;
+
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.platform.suite.api.IncludeTags;
+import org.junit.platform.suite.api.SelectClasses;
+import org.junit.runner.RunWith;
+
+@RunWith(JUnitPlatform.class)
+@IncludeTags("Heavy")
+@SelectClasses({
+	HostResolutionStressTest.class
+})
+public class StressTestsSuite {
+
+}